@@ -0,0 +1,85 @@
+package me.simplecoding.utils.net;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of equally sized {@link ByteBuffer}s. Buffers beyond {@code maxPooled} are simply dropped on release,
+ * so a burst never pins more memory than that.
+ */
+public class ByteBufferPool {
+
+	private static final class DefaultHolder {
+		private static final ByteBufferPool defaultPool = new ByteBufferPool(16 * 1024, 64, false);
+	}
+
+	// 64 heap buffers of 16KB
+	public static final ByteBufferPool defaultPool() {
+		return DefaultHolder.defaultPool;
+	}
+
+	private final int bufferSize;
+	private final int maxPooled;
+	private final boolean direct;
+	private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+	private final LongAdder allocated = new LongAdder();
+
+	public ByteBufferPool(int bufferSize, int maxPooled, boolean direct) {
+		if (bufferSize <= 0 || maxPooled < 0) {
+			throw new IllegalArgumentException("Illegal pool size: " + bufferSize + " x " + maxPooled);
+		}
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+		this.direct = direct;
+	}
+
+	// a cleared buffer
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = buffers.poll();
+		if (buffer != null) {
+			pooled.decrementAndGet();
+			return buffer;
+		}
+		allocated.increment();
+		return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+	}
+
+	public void release(ByteBuffer buffer) {
+		if (buffer.capacity() != bufferSize || buffer.isDirect() != direct || buffer.isReadOnly()) {
+			return;
+		}
+		if (pooled.incrementAndGet() <= maxPooled) {
+			buffer.clear();
+			buffers.offer(buffer);
+		} else {
+			pooled.decrementAndGet();
+		}
+	}
+
+	public int bufferSize() {
+		return bufferSize;
+	}
+
+	public boolean isDirect() {
+		return direct;
+	}
+
+	public int pooled() {
+		return pooled.get();
+	}
+
+	// buffers created because the pool was empty
+	public long allocated() {
+		return allocated.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ByteBufferPool[bufferSize=" + bufferSize + ", maxPooled=" + maxPooled + ", direct=" + direct
+				+ ", pooled=" + pooled() + ", allocated=" + allocated() + "]";
+	}
+
+}
@@ -0,0 +1,228 @@
+package me.simplecoding.utils.net;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memoizes the results of another {@link URLEncoder}.
+ * <p>
+ * The cache is bounded by entry count and/or weight, the weight of an entry being the approximate bytes its key and
+ * value chars take. Admission is TinyLFU style: once full, a new entry only replaces the oldest one when a count-min
+ * sketch has seen it more often, so one-off inputs don't flush the hot tokens out.
+ */
+public final class CachingURLEncoder implements URLEncoder {
+
+	private final URLEncoder delegate;
+	private final long maximumSize;
+	private final long maximumWeight;
+	private final int maximumLength;
+	private final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<>();
+	private final FrequencySketch sketch;
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	// insertion order of the cached keys, guarded by evictionLock
+	private final ArrayDeque<String> order = new ArrayDeque<>();
+	private long weight;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	CachingURLEncoder(URLEncoder delegate, long maximumSize, long maximumWeight, int maximumLength) {
+		this.delegate = delegate;
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+		this.maximumLength = maximumLength;
+		long expected = maximumSize != Long.MAX_VALUE ? maximumSize : maximumWeight / 64;
+		this.sketch = new FrequencySketch((int) Math.min(expected, 1 << 20));
+	}
+
+	@Override
+	public String encode(String s) {
+		sketch.increment(s);
+		String encoded = cache.get(s);
+		if (encoded != null) {
+			hits.increment();
+			return encoded;
+		}
+		misses.increment();
+		encoded = delegate.encode(s);
+		if (s.length() <= maximumLength) {
+			admit(s, encoded);
+		}
+		return encoded;
+	}
+
+	@Override
+	public StringBuilder encodeTo(CharSequence s, StringBuilder out) {
+		if (s instanceof String) {
+			return out.append(encode((String) s));
+		}
+		return delegate.encodeTo(s, out);
+	}
+
+	@Override
+	public <A extends Appendable> A encodeTo(CharSequence s, A out) throws IOException {
+		if (s instanceof String) {
+			out.append(encode((String) s));
+			return out;
+		}
+		return delegate.encodeTo(s, out);
+	}
+
+	private static long weigh(String key, String value) {
+		return 2L * (key.length() + value.length());
+	}
+
+	private void admit(String key, String value) {
+		long w = weigh(key, value);
+		if (w > maximumWeight) {
+			return;
+		}
+		evictionLock.lock();
+		try {
+			if (cache.containsKey(key)) {
+				return;
+			}
+			// the candidate has to beat every victim it needs before any of them is evicted
+			int frequency = sketch.frequency(key);
+			int victims = 0;
+			long freed = 0;
+			for (Iterator<String> it = order.iterator(); order.size() - victims >= maximumSize
+					|| weight - freed + w > maximumWeight; victims++) {
+				String victim = it.next();
+				if (frequency <= sketch.frequency(victim)) {
+					// rejected, the victim gets another round
+					it.remove();
+					order.addLast(victim);
+					return;
+				}
+				freed += weigh(victim, cache.get(victim));
+			}
+			for (; victims > 0; victims--) {
+				String victim = order.pollFirst();
+				weight -= weigh(victim, cache.remove(victim));
+				evictions.increment();
+			}
+			cache.put(key, value);
+			order.addLast(key);
+			weight += w;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public URLEncoder delegate() {
+		return delegate;
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long weight() {
+		evictionLock.lock();
+		try {
+			return weight;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+	public double hitRate() {
+		long hit = hitCount();
+		long total = hit + missCount();
+		return total == 0 ? 1.0 : (double) hit / total;
+	}
+
+	public void invalidateAll() {
+		evictionLock.lock();
+		try {
+			cache.clear();
+			order.clear();
+			weight = 0;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CachingURLEncoder[size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount()
+				+ ", evictions=" + evictionCount() + "]";
+	}
+
+	/**
+	 * Count-min sketch of 4 rows of counters saturating at 15, all halved after {@code 10 * capacity} increments so
+	 * old popularity fades. Updates are not synchronized, a lost increment under contention only makes the estimate
+	 * a bit lower.
+	 */
+	static final class FrequencySketch {
+
+		private static final int[] SEEDS = { 0x97CB3127, 0xB8C1E91D, 0x3A7D6C5B, 0xD6E8FEB8 };
+
+		private final byte[] table;
+		private final int mask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(int capacity) {
+			int size = Integer.highestOneBit(Math.max(16, capacity * 4) - 1) << 1;
+			this.table = new byte[size];
+			this.mask = size - 1;
+			this.sampleSize = Math.max(160, capacity * 10);
+		}
+
+		private int index(int hash, int row) {
+			int h = (hash ^ SEEDS[row]) * 0x9E3779B9;
+			return (h ^ (h >>> 16)) & mask;
+		}
+
+		int frequency(Object e) {
+			int hash = e.hashCode();
+			int frequency = Integer.MAX_VALUE;
+			for (int row = 0; row < SEEDS.length; row++) {
+				frequency = Math.min(frequency, table[index(hash, row)]);
+			}
+			return frequency;
+		}
+
+		void increment(Object e) {
+			int hash = e.hashCode();
+			byte[] table = this.table;
+			for (int row = 0; row < SEEDS.length; row++) {
+				int i = index(hash, row);
+				if (table[i] < 15) {
+					table[i]++;
+				}
+			}
+			if (++additions >= sampleSize) {
+				reset();
+			}
+		}
+
+		private void reset() {
+			byte[] table = this.table;
+			for (int i = 0; i < table.length; i++) {
+				table[i] >>= 1;
+			}
+			additions >>= 1;
+		}
+
+	}
+
+}
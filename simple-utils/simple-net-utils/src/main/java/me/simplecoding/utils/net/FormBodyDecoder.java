@@ -0,0 +1,205 @@
+package me.simplecoding.utils.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Decodes {@code application/x-www-form-urlencoded} bodies while reading them in fixed-size chunks.
+ * <p>
+ * Escapes are turned into bytes as they arrive and a field is only converted with the charset once it is complete,
+ * so {@code %XX} escapes and multi-byte characters may be split anywhere. Memory use is bounded by the chunk size and
+ * {@link #maxFieldSize()}, whatever the size of the body.
+ */
+public class FormBodyDecoder {
+
+	@FunctionalInterface
+	public interface FieldHandler {
+
+		void field(String name, String value) throws IOException;
+
+	}
+
+	public static final FormBodyDecoder newInstance() {
+		return new FormBodyDecoder();
+	}
+
+	private Charset charset = URLEncoderBuilder.UTF_8;
+	private int bufferSize = 8192;
+	private int maxFieldSize = 64 * 1024;
+	private int maxFields = 1000;
+
+	public Charset charset() {
+		return charset;
+	}
+
+	public FormBodyDecoder charset(Charset charset) {
+		this.charset = charset;
+		return this;
+	}
+
+	public int bufferSize() {
+		return bufferSize;
+	}
+
+	public FormBodyDecoder bufferSize(int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	// maximum decoded bytes of a single name or value
+	public int maxFieldSize() {
+		return maxFieldSize;
+	}
+
+	public FormBodyDecoder maxFieldSize(int maxFieldSize) {
+		if (maxFieldSize <= 0) {
+			throw new IllegalArgumentException("Illegal max field size: " + maxFieldSize);
+		}
+		this.maxFieldSize = maxFieldSize;
+		return this;
+	}
+
+	public int maxFields() {
+		return maxFields;
+	}
+
+	public FormBodyDecoder maxFields(int maxFields) {
+		if (maxFields <= 0) {
+			throw new IllegalArgumentException("Illegal max fields: " + maxFields);
+		}
+		this.maxFields = maxFields;
+		return this;
+	}
+
+	// returns the number of fields handled, the stream is not closed
+	public int decode(InputStream in, FieldHandler handler) throws IOException {
+		State state = new State(handler);
+		byte[] buffer = new byte[bufferSize];
+		for (int n; (n = in.read(buffer)) != -1;) {
+			state.feed(buffer, n);
+		}
+		return state.finish();
+	}
+
+	// returns the number of fields handled, the channel is not closed
+	public int decode(ReadableByteChannel channel, FieldHandler handler) throws IOException {
+		State state = new State(handler);
+		ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+		while (channel.read(buffer) != -1) {
+			state.feed(buffer.array(), buffer.position());
+			buffer.clear();
+		}
+		return state.finish();
+	}
+
+	private final class State {
+
+		private static final int FIELD = 0;
+		private static final int PERCENT = 1;
+		private static final int PERCENT_HEX = 2;
+
+		private final FieldHandler handler;
+		private byte[] field = new byte[Math.min(256, maxFieldSize)];
+		private int length;
+		private String name;
+		private int escape = FIELD;
+		private int hi;
+		private char pendingHex;
+		private int fields;
+
+		private State(FieldHandler handler) {
+			this.handler = handler;
+		}
+
+		private void feed(byte[] buffer, int n) throws IOException {
+			for (int i = 0; i < n; i++) {
+				byte b = buffer[i];
+				switch (escape) {
+				case PERCENT:
+					hi = URLDecoderBuilder.hexValue(b);
+					pendingHex = (char) (b & 0xFF);
+					escape = PERCENT_HEX;
+					break;
+				case PERCENT_HEX:
+					int lo = URLDecoderBuilder.hexValue(b);
+					if ((hi | lo) < 0) {
+						throw URLDecoderBuilder.illegalHex(new String(new char[] { pendingHex, (char) (b & 0xFF) }));
+					}
+					append((byte) ((hi << 4) | lo));
+					escape = FIELD;
+					break;
+				default:
+					switch (b) {
+					case '%':
+						escape = PERCENT;
+						break;
+					case '+':
+						append((byte) ' ');
+						break;
+					case '=':
+						if (name == null) {
+							name = new String(field, 0, length, charset);
+							length = 0;
+						} else {
+							append(b);
+						}
+						break;
+					case '&':
+						endField();
+						break;
+					default:
+						append(b);
+						break;
+					}
+					break;
+				}
+			}
+		}
+
+		private void append(byte b) throws IOException {
+			if (length == field.length) {
+				if (length == maxFieldSize) {
+					throw new IOException("Form field exceeds " + maxFieldSize + " bytes");
+				}
+				field = Arrays.copyOf(field, (int) Math.min(maxFieldSize, length * 2L));
+			}
+			field[length++] = b;
+		}
+
+		private void endField() throws IOException {
+			if (name == null) {
+				if (length == 0) {
+					// empty segment such as "a=1&&b=2"
+					return;
+				}
+				name = new String(field, 0, length, charset);
+				length = 0;
+			}
+			if (++fields > maxFields) {
+				throw new IOException("Form has more than " + maxFields + " fields");
+			}
+			String value = new String(field, 0, length, charset);
+			String name = this.name;
+			this.name = null;
+			length = 0;
+			handler.field(name, value);
+		}
+
+		private int finish() throws IOException {
+			if (escape != FIELD) {
+				throw URLDecoderBuilder.incompleteTrailingEscape();
+			}
+			endField();
+			return fields;
+		}
+
+	}
+
+}
@@ -0,0 +1,324 @@
+package me.simplecoding.utils.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@link HttpBody} implementations.
+ */
+final class HttpBodies {
+
+	static void copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+		while (in.read(buffer) != -1) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	static final class BytesBody implements HttpBody {
+
+		final byte[] bytes;
+		final int offset;
+		final int length;
+
+		BytesBody(byte[] bytes, int offset, int length) {
+			if (offset < 0 || length < 0 || offset + length > bytes.length) {
+				throw new IndexOutOfBoundsException();
+			}
+			this.bytes = bytes;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public long contentLength() {
+			return length;
+		}
+
+		@Override
+		public InputStream newInputStream() {
+			return new ByteArrayInputStream(bytes, offset, length);
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			out.write(bytes, offset, length);
+		}
+
+		@Override
+		public void writeTo(WritableByteChannel channel) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "HttpBody[bytes=" + length + "]";
+		}
+
+	}
+
+	static final class BuffersBody implements HttpBody {
+
+		private final ByteBuffer[] buffers;
+		private final long length;
+
+		BuffersBody(ByteBuffer[] buffers) {
+			this.buffers = new ByteBuffer[buffers.length];
+			long length = 0;
+			for (int i = 0; i < buffers.length; i++) {
+				this.buffers[i] = buffers[i].asReadOnlyBuffer();
+				length += buffers[i].remaining();
+			}
+			this.length = length;
+		}
+
+		// fresh views, so the body can be written again
+		ByteBuffer[] buffers() {
+			ByteBuffer[] views = new ByteBuffer[buffers.length];
+			for (int i = 0; i < views.length; i++) {
+				views[i] = buffers[i].duplicate();
+			}
+			return views;
+		}
+
+		@Override
+		public long contentLength() {
+			return length;
+		}
+
+		@Override
+		public InputStream newInputStream() {
+			ByteBuffer[] views = buffers();
+			return new InputStream() {
+
+				private int index;
+
+				@Override
+				public int read() {
+					byte[] one = new byte[1];
+					return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					while (index < views.length && !views[index].hasRemaining()) {
+						index++;
+					}
+					if (index == views.length) {
+						return -1;
+					}
+					int n = Math.min(len, views[index].remaining());
+					views[index].get(b, off, n);
+					return n;
+				}
+
+			};
+		}
+
+		@Override
+		public void writeTo(WritableByteChannel channel) throws IOException {
+			ByteBuffer[] views = buffers();
+			if (channel instanceof GatheringByteChannel) {
+				GatheringByteChannel gathering = (GatheringByteChannel) channel;
+				for (long written = 0; written < length;) {
+					written += gathering.write(views);
+				}
+			} else {
+				for (ByteBuffer view : views) {
+					while (view.hasRemaining()) {
+						channel.write(view);
+					}
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "HttpBody[buffers=" + buffers.length + ", length=" + length + "]";
+		}
+
+	}
+
+	static final class FileBody implements HttpBody {
+
+		final Path file;
+		final long position;
+		final long count;
+
+		FileBody(Path file, long position, long count) {
+			if (position < 0 || count < 0) {
+				throw new IllegalArgumentException("Illegal file region: " + position + "+" + count);
+			}
+			this.file = file;
+			this.position = position;
+			this.count = count;
+		}
+
+		@Override
+		public long contentLength() {
+			return count;
+		}
+
+		@Override
+		public InputStream newInputStream() throws IOException {
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+			channel.position(position);
+			return new LimitedInputStream(Channels.newInputStream(channel), count);
+		}
+
+		// lets the kernel copy from the file to the socket where it can
+		@Override
+		public void writeTo(WritableByteChannel target) throws IOException {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				for (long written = 0; written < count;) {
+					long n = channel.transferTo(position + written, count - written, target);
+					if (n <= 0 && channel.size() <= position + written) {
+						throw new IOException("File " + file + " is shorter than " + (position + count) + " bytes");
+					}
+					written += n;
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "HttpBody[file=" + file + ", position=" + position + ", count=" + count + "]";
+		}
+
+	}
+
+	static final class StreamBody implements HttpBody {
+
+		private final HttpBody.Source<? extends InputStream> source;
+		private final long length;
+
+		StreamBody(HttpBody.Source<? extends InputStream> source, long length) {
+			this.source = source;
+			this.length = length;
+		}
+
+		@Override
+		public long contentLength() {
+			return length;
+		}
+
+		@Override
+		public InputStream newInputStream() throws IOException {
+			return source.open();
+		}
+
+		@Override
+		public String toString() {
+			return "HttpBody[stream, length=" + length + "]";
+		}
+
+	}
+
+	static final class ChannelBody implements HttpBody {
+
+		private final HttpBody.Source<? extends ReadableByteChannel> source;
+		private final long length;
+
+		ChannelBody(HttpBody.Source<? extends ReadableByteChannel> source, long length) {
+			this.source = source;
+			this.length = length;
+		}
+
+		@Override
+		public long contentLength() {
+			return length;
+		}
+
+		@Override
+		public InputStream newInputStream() throws IOException {
+			return Channels.newInputStream(source.open());
+		}
+
+		@Override
+		public void writeTo(WritableByteChannel channel) throws IOException {
+			try (ReadableByteChannel in = source.open()) {
+				copy(in, channel);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "HttpBody[channel, length=" + length + "]";
+		}
+
+	}
+
+	private static final class LimitedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		private LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = in.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int n = in.read(b, off, (int) Math.min(len, remaining));
+			if (n > 0) {
+				remaining -= n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(in.available(), remaining);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+	}
+
+	private HttpBodies() {
+	}
+
+}
@@ -0,0 +1,91 @@
+package me.simplecoding.utils.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The body of an {@link HttpRequest}, written out when the request is sent so it never has to be held in memory as a
+ * whole. Bodies of unknown length are sent with chunked transfer encoding.
+ * <p>
+ * All bodies created here can be written more than once, sources are opened again for each write.
+ */
+public interface HttpBody {
+
+	@FunctionalInterface
+	interface Source<T> {
+
+		T open() throws IOException;
+
+	}
+
+	// -1 if unknown
+	long contentLength();
+
+	InputStream newInputStream() throws IOException;
+
+	default void writeTo(OutputStream out) throws IOException {
+		try (InputStream in = newInputStream()) {
+			byte[] buffer = new byte[8192];
+			for (int n; (n = in.read(buffer)) != -1;) {
+				out.write(buffer, 0, n);
+			}
+		}
+	}
+
+	default void writeTo(WritableByteChannel channel) throws IOException {
+		try (ReadableByteChannel in = Channels.newChannel(newInputStream())) {
+			HttpBodies.copy(in, channel);
+		}
+	}
+
+	static HttpBody of(byte[] bytes) {
+		return of(bytes, 0, bytes.length);
+	}
+
+	static HttpBody of(byte[] bytes, int offset, int length) {
+		return new HttpBodies.BytesBody(bytes, offset, length);
+	}
+
+	// the remaining bytes of each buffer, the buffers' positions are left untouched
+	static HttpBody of(ByteBuffer... buffers) {
+		return new HttpBodies.BuffersBody(buffers);
+	}
+
+	static HttpBody of(List<ByteBuffer> buffers) {
+		return of(buffers.toArray(new ByteBuffer[buffers.size()]));
+	}
+
+	// sent with FileChannel.transferTo when the connection has a socket channel
+	static HttpBody ofFile(Path file) throws IOException {
+		return ofFile(file, 0, Files.size(file));
+	}
+
+	static HttpBody ofFile(Path file, long position, long count) {
+		return new HttpBodies.FileBody(file, position, count);
+	}
+
+	static HttpBody ofInputStream(Source<? extends InputStream> source) {
+		return ofInputStream(source, -1);
+	}
+
+	static HttpBody ofInputStream(Source<? extends InputStream> source, long contentLength) {
+		return new HttpBodies.StreamBody(source, contentLength);
+	}
+
+	static HttpBody ofChannel(Source<? extends ReadableByteChannel> source) {
+		return ofChannel(source, -1);
+	}
+
+	static HttpBody ofChannel(Source<? extends ReadableByteChannel> source, long contentLength) {
+		return new HttpBodies.ChannelBody(source, contentLength);
+	}
+
+}
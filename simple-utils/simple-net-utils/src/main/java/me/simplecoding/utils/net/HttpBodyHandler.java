@@ -0,0 +1,14 @@
+package me.simplecoding.utils.net;
+
+import java.io.IOException;
+
+/**
+ * Consumes the body of an {@link HttpResponse}, see {@link HttpBodyHandlers} for the common ones and
+ * {@link HttpResponse#body(HttpBodyHandler)} to apply one and close the response.
+ */
+@FunctionalInterface
+public interface HttpBodyHandler<T> {
+
+	T handle(HttpResponse response) throws IOException;
+
+}
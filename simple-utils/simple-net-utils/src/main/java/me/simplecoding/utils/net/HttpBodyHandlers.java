@@ -0,0 +1,348 @@
+package me.simplecoding.utils.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Common {@link HttpBodyHandler}s. They read through buffers taken from a {@link ByteBufferPool} and stop with an
+ * {@link IOException} as soon as a size limit is passed, using the content-length to fail before reading when it is
+ * known. Closing the response afterwards drops the connection if too much of the body is left.
+ */
+public final class HttpBodyHandlers {
+
+	@FunctionalInterface
+	public interface BufferConsumer {
+
+		// the buffer is flipped and only valid during the call
+		void accept(ByteBuffer buffer) throws IOException;
+
+	}
+
+	@FunctionalInterface
+	public interface LineConsumer {
+
+		void line(String line) throws IOException;
+
+	}
+
+	public static final HttpBodyHandler<byte[]> ofBytes(int maxSize) {
+		return response -> {
+			long contentLength = checkContentLength(response, maxSize);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(contentLength < 0 ? 256 : (int) contentLength);
+			long total = consume(response, ByteBufferPool.defaultPool(), buffer -> {
+				if (buffer.hasArray()) {
+					out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+				} else {
+					byte[] bytes = new byte[buffer.remaining()];
+					buffer.get(bytes);
+					out.write(bytes);
+				}
+			}, maxSize);
+			return total == 0 ? new byte[0] : out.toByteArray();
+		};
+	}
+
+	public static final HttpBodyHandler<String> ofString(Charset charset, int maxSize) {
+		HttpBodyHandler<byte[]> bytes = ofBytes(maxSize);
+		return response -> new String(bytes.handle(response), charset);
+	}
+
+	// hands the body to the consumer one pooled buffer at a time, returns the body size
+	public static final HttpBodyHandler<Long> ofBuffers(ByteBufferPool pool, long maxSize, BufferConsumer consumer) {
+		return response -> {
+			checkContentLength(response, maxSize);
+			return consume(response, pool, consumer, maxSize);
+		};
+	}
+
+	// returns the bytes written, the channel is left open
+	public static final HttpBodyHandler<Long> toChannel(WritableByteChannel channel, ByteBufferPool pool) {
+		return ofBuffers(pool, Long.MAX_VALUE, buffer -> {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		});
+	}
+
+	// defaults to CREATE, TRUNCATE_EXISTING and WRITE
+	public static final HttpBodyHandler<Path> toFile(Path file, OpenOption... options) {
+		OpenOption[] opts = options.length == 0
+				? new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.WRITE }
+				: options;
+		return response -> {
+			try (FileChannel channel = FileChannel.open(file, opts)) {
+				toChannel(channel, ByteBufferPool.defaultPool()).handle(response);
+			}
+			return file;
+		};
+	}
+
+	/**
+	 * Splits the body on {@code delimiter}, a last frame without delimiter is passed too. Frames inside one read are
+	 * passed as views of the pooled buffer, only frames spanning reads are copied. Returns the number of frames.
+	 */
+	public static final HttpBodyHandler<Long> ofFrames(byte delimiter, int maxFrameLength, BufferConsumer consumer) {
+		return ofFrames(delimiter, maxFrameLength, "Frame exceeds " + maxFrameLength + " bytes", consumer);
+	}
+
+	private static HttpBodyHandler<Long> ofFrames(byte delimiter, int maxFrameLength, String tooLong,
+			BufferConsumer consumer) {
+		return response -> {
+			FrameSplitter splitter = new FrameSplitter(delimiter, maxFrameLength, tooLong, consumer);
+			consume(response, ByteBufferPool.defaultPool(), splitter::feed, Long.MAX_VALUE);
+			splitter.finish();
+			return splitter.frames;
+		};
+	}
+
+	/**
+	 * Frames each prefixed by their length as a 4 byte big-endian int. Returns the number of frames.
+	 */
+	public static final HttpBodyHandler<Long> ofLengthFieldFrames(int maxFrameLength, BufferConsumer consumer) {
+		return response -> {
+			LengthFieldSplitter splitter = new LengthFieldSplitter(maxFrameLength, consumer);
+			consume(response, ByteBufferPool.defaultPool(), splitter::feed, Long.MAX_VALUE);
+			splitter.finish();
+			return splitter.frames;
+		};
+	}
+
+	// lines end with LF or CRLF, the charset must be ASCII compatible such as UTF-8. Returns the number of lines.
+	public static final HttpBodyHandler<Long> ofLines(Charset charset, int maxLineLength, LineConsumer consumer) {
+		String tooLong = "Line exceeds " + maxLineLength + " bytes";
+		// one more for the CR
+		return ofFrames((byte) '\n', maxLineLength + 1, tooLong, frame -> {
+			int length = frame.remaining();
+			if (length > 0 && frame.get(frame.limit() - 1) == '\r') {
+				length--;
+			}
+			if (length > maxLineLength) {
+				throw new IOException(tooLong);
+			}
+			if (frame.hasArray()) {
+				consumer.line(new String(frame.array(), frame.arrayOffset() + frame.position(), length, charset));
+			} else {
+				byte[] bytes = new byte[length];
+				frame.get(bytes);
+				consumer.line(new String(bytes, charset));
+			}
+		});
+	}
+
+	private static long checkContentLength(HttpResponse response, long maxSize) throws IOException {
+		String header = response.header("content-length");
+		if (header == null) {
+			return -1;
+		}
+		long contentLength;
+		try {
+			contentLength = Long.parseLong(header.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+		if (contentLength > maxSize) {
+			throw new IOException("Response body of " + contentLength + " bytes exceeds " + maxSize + " bytes");
+		}
+		return contentLength;
+	}
+
+	private static long consume(HttpResponse response, ByteBufferPool pool, BufferConsumer consumer, long maxSize)
+			throws IOException {
+		InputStream in = response.bodyStream();
+		if (in == null) {
+			return 0;
+		}
+		ByteBuffer buffer = pool.acquire();
+		byte[] transfer = buffer.hasArray() ? null : new byte[Math.min(8192, buffer.capacity())];
+		long total = 0;
+		try {
+			for (;;) {
+				int n;
+				if (transfer == null) {
+					n = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+					if (n > 0) {
+						buffer.position(buffer.position() + n);
+					}
+				} else {
+					n = in.read(transfer, 0, Math.min(transfer.length, buffer.remaining()));
+					if (n > 0) {
+						buffer.put(transfer, 0, n);
+					}
+				}
+				if (n > 0) {
+					total += n;
+					if (total > maxSize) {
+						throw new IOException("Response body exceeds " + maxSize + " bytes");
+					}
+				}
+				if (n < 0 || !buffer.hasRemaining()) {
+					buffer.flip();
+					if (buffer.hasRemaining()) {
+						consumer.accept(buffer);
+					}
+					buffer.clear();
+					if (n < 0) {
+						return total;
+					}
+				}
+			}
+		} finally {
+			pool.release(buffer);
+		}
+	}
+
+	private static final class FrameSplitter {
+
+		private final byte delimiter;
+		private final int maxFrameLength;
+		private final String tooLong;
+		private final BufferConsumer consumer;
+		// the start of a frame spanning reads
+		private byte[] pending = new byte[0];
+		private int pendingLength;
+		private long frames;
+
+		private FrameSplitter(byte delimiter, int maxFrameLength, String tooLong, BufferConsumer consumer) {
+			this.delimiter = delimiter;
+			this.maxFrameLength = maxFrameLength;
+			this.tooLong = tooLong;
+			this.consumer = consumer;
+		}
+
+		private void feed(ByteBuffer buffer) throws IOException {
+			int start = buffer.position();
+			int limit = buffer.limit();
+			for (int i = start; i < limit; i++) {
+				if (buffer.get(i) == delimiter) {
+					ByteBuffer view = buffer.duplicate();
+					view.limit(i).position(start);
+					if (pendingLength == 0) {
+						emit(view);
+					} else {
+						append(view);
+						emitPending();
+					}
+					start = i + 1;
+				}
+			}
+			ByteBuffer rest = buffer.duplicate();
+			rest.position(start);
+			append(rest);
+		}
+
+		private void append(ByteBuffer bytes) throws IOException {
+			int length = bytes.remaining();
+			if (pendingLength + length > maxFrameLength) {
+				throw new IOException(tooLong);
+			}
+			if (pendingLength + length > pending.length) {
+				pending = Arrays.copyOf(pending, Math.min(maxFrameLength, Math.max(pendingLength + length, 256)));
+			}
+			bytes.get(pending, pendingLength, length);
+			pendingLength += length;
+		}
+
+		private void emitPending() throws IOException {
+			ByteBuffer frame = ByteBuffer.wrap(pending, 0, pendingLength);
+			pendingLength = 0;
+			emit(frame);
+		}
+
+		private void emit(ByteBuffer frame) throws IOException {
+			if (frame.remaining() > maxFrameLength) {
+				throw new IOException(tooLong);
+			}
+			frames++;
+			consumer.accept(frame);
+		}
+
+		private void finish() throws IOException {
+			if (pendingLength > 0) {
+				emitPending();
+			}
+		}
+
+	}
+
+	private static final class LengthFieldSplitter {
+
+		private final int maxFrameLength;
+		private final BufferConsumer consumer;
+		private final ByteBuffer header = ByteBuffer.allocate(4);
+		// -1 while reading the length field
+		private int frameLength = -1;
+		private ByteBuffer pending;
+		private long frames;
+
+		private LengthFieldSplitter(int maxFrameLength, BufferConsumer consumer) {
+			this.maxFrameLength = maxFrameLength;
+			this.consumer = consumer;
+		}
+
+		private void feed(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				if (frameLength < 0) {
+					while (header.hasRemaining() && buffer.hasRemaining()) {
+						header.put(buffer.get());
+					}
+					if (header.hasRemaining()) {
+						return;
+					}
+					frameLength = header.getInt(0);
+					header.clear();
+					if (frameLength < 0 || frameLength > maxFrameLength) {
+						throw new IOException("Illegal frame length: " + (frameLength & 0xFFFFFFFFL));
+					}
+				}
+				if (pending == null && buffer.remaining() >= frameLength) {
+					ByteBuffer view = buffer.duplicate();
+					view.limit(view.position() + frameLength);
+					buffer.position(view.limit());
+					emit(view);
+					continue;
+				}
+				if (pending == null) {
+					pending = ByteBuffer.allocate(frameLength);
+				}
+				int n = Math.min(pending.remaining(), buffer.remaining());
+				ByteBuffer part = buffer.duplicate();
+				part.limit(part.position() + n);
+				pending.put(part);
+				buffer.position(buffer.position() + n);
+				if (!pending.hasRemaining()) {
+					pending.flip();
+					ByteBuffer frame = pending;
+					pending = null;
+					emit(frame);
+				}
+			}
+		}
+
+		private void emit(ByteBuffer frame) throws IOException {
+			frameLength = -1;
+			frames++;
+			consumer.accept(frame);
+		}
+
+		private void finish() throws IOException {
+			if (frameLength >= 0 || header.position() > 0) {
+				throw new IOException("Body ends inside a frame");
+			}
+		}
+
+	}
+
+	private HttpBodyHandlers() {
+	}
+
+}
@@ -0,0 +1,678 @@
+package me.simplecoding.utils.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Opt-in gzip and deflate support, set on a request with {@link HttpRequest#compression(HttpCompression)}.
+ * <p>
+ * Advertises {@code Accept-Encoding}, decodes compressed responses while they are read and compresses request bodies
+ * of a known length from {@link Builder#requestThreshold(int)} on. Byte bodies are compressed up front, file and
+ * stream bodies while they are sent so they never have to be held in memory. {@link Inflater}s and {@link Deflater}s
+ * are pooled, gzip framing is handled here so all of them work on raw deflate data.
+ */
+public class HttpCompression {
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+	// header flags
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	private final String acceptEncoding;
+	private final String requestEncoding;
+	private final int requestThreshold;
+	private final CodecPool<Inflater> inflaters;
+	private final CodecPool<Deflater> deflaters;
+
+	private final LongAdder requestBytes = new LongAdder();
+	private final LongAdder requestCompressedBytes = new LongAdder();
+	private final LongAdder responseBytes = new LongAdder();
+	private final LongAdder responseCompressedBytes = new LongAdder();
+
+	private HttpCompression(Builder builder) {
+		if (builder.gzip && builder.deflate) {
+			acceptEncoding = "gzip, deflate";
+		} else {
+			acceptEncoding = builder.gzip ? "gzip" : builder.deflate ? "deflate" : "identity";
+		}
+		requestEncoding = builder.requestEncoding;
+		requestThreshold = builder.requestThreshold;
+		int level = builder.level;
+		boolean nowrap = "gzip".equals(requestEncoding);
+		inflaters = new CodecPool<>(builder.maxPooled, () -> new Inflater(true));
+		deflaters = new CodecPool<>(builder.maxPooled, () -> new Deflater(level, nowrap));
+	}
+
+	public String acceptEncoding() {
+		return acceptEncoding;
+	}
+
+	// null when requests are never compressed
+	public String requestEncoding() {
+		return requestEncoding;
+	}
+
+	public int requestThreshold() {
+		return requestThreshold;
+	}
+
+	/**
+	 * Returns the compressed body, or the body itself when it is below the threshold, of unknown length or would not
+	 * get smaller. Executors add {@code Content-Encoding: }{@link #requestEncoding()} when a new body is returned.
+	 * <p>
+	 * Bodies not already in memory, and byte bodies too large for one array, are deflated while they are written and
+	 * sent with chunked transfer encoding, whether they get smaller or not.
+	 */
+	public HttpBody compress(HttpBody body) throws IOException {
+		long length = body == null ? -1 : body.contentLength();
+		if (requestEncoding == null || length < 0 || length < requestThreshold) {
+			return body;
+		}
+		if (length > Integer.MAX_VALUE - 64
+				|| !(body instanceof HttpBodies.BytesBody || body instanceof HttpBodies.BuffersBody)) {
+			return new DeflatingBody(body);
+		}
+		boolean gzip = "gzip".equals(requestEncoding);
+		ByteBufferPool bufferPool = ByteBufferPool.defaultPool();
+		ByteBuffer inBuffer = bufferPool.acquire();
+		ByteBuffer outBuffer = bufferPool.acquire();
+		Deflater deflater = deflaters.acquire();
+		ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(length / 2 + 64, 64 * 1024));
+		try (InputStream in = body.newInputStream()) {
+			byte[] input = inBuffer.array();
+			byte[] output = outBuffer.array();
+			CRC32 crc = gzip ? new CRC32() : null;
+			if (gzip) {
+				out.write(GZIP_HEADER);
+			}
+			for (int n; (n = in.read(input)) >= 0;) {
+				if (crc != null) {
+					crc.update(input, 0, n);
+				}
+				deflater.setInput(input, 0, n);
+				while (!deflater.needsInput()) {
+					out.write(output, 0, deflater.deflate(output));
+				}
+			}
+			deflater.finish();
+			while (!deflater.finished()) {
+				out.write(output, 0, deflater.deflate(output));
+			}
+			if (crc != null) {
+				writeIntLE(out, (int) crc.getValue());
+				writeIntLE(out, (int) length);
+			}
+		} finally {
+			deflaters.release(deflater);
+			bufferPool.release(outBuffer);
+			bufferPool.release(inBuffer);
+		}
+		requestBytes.add(length);
+		if (out.size() >= length) {
+			requestCompressedBytes.add(length);
+			return body;
+		}
+		requestCompressedBytes.add(out.size());
+		return HttpBody.of(out.toByteArray());
+	}
+
+	private static void writeIntLE(ByteArrayOutputStream out, int value) {
+		out.write(value);
+		out.write(value >>> 8);
+		out.write(value >>> 16);
+		out.write(value >>> 24);
+	}
+
+	private static void writeIntLE(byte[] b, int off, int value) {
+		b[off] = (byte) value;
+		b[off + 1] = (byte) (value >>> 8);
+		b[off + 2] = (byte) (value >>> 16);
+		b[off + 3] = (byte) (value >>> 24);
+	}
+
+	/**
+	 * Returns a response reading the decoded body when it has a gzip or deflate {@code Content-Encoding}, without that
+	 * header and the then wrong {@code Content-Length}. Any other response is returned as is.
+	 */
+	public HttpResponse decode(HttpResponse response) {
+		String encoding = response.header("content-encoding");
+		if (encoding == null || response.bodyStream() == null) {
+			return response;
+		}
+		encoding = encoding.trim();
+		boolean gzip;
+		if ("gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+			gzip = true;
+		} else if ("deflate".equalsIgnoreCase(encoding)) {
+			gzip = false;
+		} else {
+			return response;
+		}
+		HttpHeaders headers = response.headers().copy();
+		headers.remove("Content-Encoding");
+		headers.remove("Content-Length");
+		return new HttpResponse(response.code(), response.message(), headers,
+				new InflatingInputStream(response.bodyStream(), gzip));
+	}
+
+	// uncompressed size of the request bodies seen by compress, streamed ones once they were sent
+	public long requestBytes() {
+		return requestBytes.sum();
+	}
+
+	// bytes actually sent for them
+	public long requestCompressedBytes() {
+		return requestCompressedBytes.sum();
+	}
+
+	// compressed response bytes read so far
+	public long responseCompressedBytes() {
+		return responseCompressedBytes.sum();
+	}
+
+	// decoded from them
+	public long responseBytes() {
+		return responseBytes.sum();
+	}
+
+	// sent / uncompressed, 1.0 until anything was compressed
+	public double requestRatio() {
+		return ratio(requestCompressedBytes.sum(), requestBytes.sum());
+	}
+
+	// received / decoded, 1.0 until anything was decoded
+	public double responseRatio() {
+		return ratio(responseCompressedBytes.sum(), responseBytes.sum());
+	}
+
+	private static double ratio(long compressed, long uncompressed) {
+		return uncompressed == 0 ? 1.0 : (double) compressed / uncompressed;
+	}
+
+	@Override
+	public String toString() {
+		return "HttpCompression[acceptEncoding=" + acceptEncoding + ", requestEncoding=" + requestEncoding
+				+ ", requestThreshold=" + requestThreshold + ", requestRatio=" + requestRatio() + ", responseRatio="
+				+ responseRatio() + "]";
+	}
+
+	private final class DeflatingBody implements HttpBody {
+
+		private final HttpBody body;
+
+		private DeflatingBody(HttpBody body) {
+			this.body = body;
+		}
+
+		// the compressed length is only known once it is sent
+		@Override
+		public long contentLength() {
+			return -1;
+		}
+
+		@Override
+		public InputStream newInputStream() throws IOException {
+			return new DeflatingInputStream(body.newInputStream());
+		}
+
+		@Override
+		public String toString() {
+			return "HttpBody[" + requestEncoding + ", " + body + "]";
+		}
+
+	}
+
+	private final class DeflatingInputStream extends InputStream {
+
+		private final InputStream in;
+		private final CRC32 crc;
+		private final ByteBufferPool bufferPool = ByteBufferPool.defaultPool();
+		private ByteBuffer inBuffer;
+		private ByteBuffer outBuffer;
+		private byte[] input;
+		private Deflater deflater;
+		// the gzip header, deflated data or the gzip trailer
+		private byte[] current;
+		private int pos;
+		private int lim;
+		private boolean started;
+		private boolean inputEnd;
+		private boolean closed;
+
+		private DeflatingInputStream(InputStream in) {
+			this.in = in;
+			this.crc = "gzip".equals(requestEncoding) ? new CRC32() : null;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			if (len == 0) {
+				return 0;
+			}
+			if (!started) {
+				started = true;
+				inBuffer = bufferPool.acquire();
+				outBuffer = bufferPool.acquire();
+				input = inBuffer.array();
+				deflater = deflaters.acquire();
+				if (crc != null) {
+					current = GZIP_HEADER;
+					lim = GZIP_HEADER.length;
+				}
+			}
+			for (;;) {
+				if (pos < lim) {
+					int n = Math.min(len, lim - pos);
+					System.arraycopy(current, pos, b, off, n);
+					pos += n;
+					return n;
+				}
+				if (deflater == null) {
+					return -1;
+				}
+				if (deflater.finished()) {
+					long uncompressed = deflater.getBytesRead();
+					requestBytes.add(uncompressed);
+					requestCompressedBytes.add(deflater.getBytesWritten() + (crc == null ? 0 : 18));
+					release();
+					if (crc == null) {
+						return -1;
+					}
+					current = new byte[8];
+					writeIntLE(current, 0, (int) crc.getValue());
+					writeIntLE(current, 4, (int) uncompressed);
+					pos = 0;
+					lim = 8;
+					continue;
+				}
+				if (deflater.needsInput() && !inputEnd) {
+					int n = in.read(input);
+					if (n < 0) {
+						inputEnd = true;
+						deflater.finish();
+					} else if (n > 0) {
+						if (crc != null) {
+							crc.update(input, 0, n);
+						}
+						deflater.setInput(input, 0, n);
+					}
+				}
+				current = outBuffer.array();
+				pos = 0;
+				lim = deflater.deflate(current);
+			}
+		}
+
+		private void release() {
+			deflaters.release(deflater);
+			deflater = null;
+			bufferPool.release(outBuffer);
+			bufferPool.release(inBuffer);
+			input = null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (deflater != null) {
+				release();
+			}
+			in.close();
+		}
+
+	}
+
+	private final class InflatingInputStream extends InputStream {
+
+		private final InputStream in;
+		private final boolean gzip;
+		private final ByteBufferPool bufferPool = ByteBufferPool.defaultPool();
+		private ByteBuffer buffer;
+		private byte[] buf;
+		private int pos;
+		private int lim;
+		private Inflater inflater;
+		private final CRC32 crc = new CRC32();
+		private boolean started;
+		private boolean dummyFed;
+		private boolean eof;
+		private boolean closed;
+
+		private InflatingInputStream(InputStream in, boolean gzip) {
+			this.in = in;
+			this.gzip = gzip;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			if (len == 0) {
+				return 0;
+			}
+			if (!started) {
+				started = true;
+				buffer = bufferPool.acquire();
+				buf = buffer.array();
+				inflater = inflaters.acquire();
+				if (!readHeader()) {
+					eof = true;
+				}
+			}
+			while (!eof) {
+				if (inflater.needsInput()) {
+					if (fill()) {
+						inflater.setInput(buf, pos, lim - pos);
+						pos = lim;
+					} else if (!gzip && !dummyFed) {
+						// raw deflate data may need an extra byte to finish, as with ZipFile
+						dummyFed = true;
+						inflater.setInput(new byte[1]);
+					} else {
+						throw new EOFException("Unexpected end of compressed body");
+					}
+				}
+				int n;
+				try {
+					n = inflater.inflate(b, off, len);
+				} catch (DataFormatException e) {
+					throw new ZipException(e.getMessage());
+				}
+				if (n > 0) {
+					if (gzip) {
+						crc.update(b, off, n);
+					}
+					return n;
+				}
+				if (inflater.finished()) {
+					memberEnd();
+				} else if (inflater.needsDictionary()) {
+					throw new ZipException("Preset dictionaries are not supported");
+				}
+			}
+			return -1;
+		}
+
+		// false when the body is empty
+		private boolean readHeader() throws IOException {
+			if (!fill()) {
+				return false;
+			}
+			if (gzip) {
+				if (readUShort() != GZIP_MAGIC) {
+					throw new ZipException("Not in GZIP format");
+				}
+				if (readUByte() != 8) {
+					throw new ZipException("Unsupported compression method");
+				}
+				int flags = readUByte();
+				// MTIME, XFL and OS
+				skip(6);
+				if ((flags & FEXTRA) != 0) {
+					skip(readUShort());
+				}
+				if ((flags & FNAME) != 0) {
+					while (readUByte() != 0) {
+					}
+				}
+				if ((flags & FCOMMENT) != 0) {
+					while (readUByte() != 0) {
+					}
+				}
+				if ((flags & FHCRC) != 0) {
+					skip(2);
+				}
+			} else {
+				// servers send zlib wrapped data as they should, or raw deflate data
+				while (lim - pos < 2) {
+					if (!fillMore()) {
+						throw new EOFException("Unexpected end of compressed body");
+					}
+				}
+				int cmf = buf[pos] & 0xff;
+				int flg = buf[pos + 1] & 0xff;
+				if ((cmf & 0x0f) == 8 && (cmf << 8 | flg) % 31 == 0) {
+					if ((flg & 0x20) != 0) {
+						throw new ZipException("Preset dictionaries are not supported");
+					}
+					pos += 2;
+				}
+			}
+			return true;
+		}
+
+		private void memberEnd() throws IOException {
+			int remaining = inflater.getRemaining();
+			pos = lim - remaining;
+			responseCompressedBytes.add(inflater.getBytesRead());
+			responseBytes.add(inflater.getBytesWritten());
+			if (!gzip) {
+				// the zlib adler-32 trailer is left unchecked
+				eof = true;
+				return;
+			}
+			long expectedCrc = readIntLE() & 0xFFFFFFFFL;
+			long expectedSize = readIntLE() & 0xFFFFFFFFL;
+			if (expectedCrc != crc.getValue()) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			if (expectedSize != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			inflater.reset();
+			crc.reset();
+			// concatenated members
+			if (pos == lim && !fill()) {
+				eof = true;
+			} else if (!readHeader()) {
+				eof = true;
+			}
+		}
+
+		// refills an empty buffer, false at the end of the body
+		private boolean fill() throws IOException {
+			if (pos < lim) {
+				return true;
+			}
+			pos = lim = 0;
+			return fillMore();
+		}
+
+		private boolean fillMore() throws IOException {
+			if (pos > 0) {
+				System.arraycopy(buf, pos, buf, 0, lim - pos);
+				lim -= pos;
+				pos = 0;
+			}
+			int n = in.read(buf, lim, buf.length - lim);
+			if (n < 0) {
+				return false;
+			}
+			lim += n;
+			return true;
+		}
+
+		private int readUByte() throws IOException {
+			if (!fill()) {
+				throw new EOFException("Unexpected end of compressed body");
+			}
+			return buf[pos++] & 0xff;
+		}
+
+		private int readUShort() throws IOException {
+			return readUByte() | readUByte() << 8;
+		}
+
+		private int readIntLE() throws IOException {
+			return readUShort() | readUShort() << 16;
+		}
+
+		private void skip(int n) throws IOException {
+			for (int i = 0; i < n; i++) {
+				readUByte();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (inflater != null) {
+				inflaters.release(inflater);
+				inflater = null;
+				bufferPool.release(buffer);
+				buffer = null;
+			}
+			in.close();
+		}
+
+	}
+
+	// bounded pool, codecs beyond maxPooled are ended to free their native memory
+	private static final class CodecPool<T> {
+
+		private final int maxPooled;
+		private final Supplier<T> factory;
+		private final ConcurrentLinkedQueue<T> codecs = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger pooled = new AtomicInteger();
+
+		private CodecPool(int maxPooled, Supplier<T> factory) {
+			this.maxPooled = maxPooled;
+			this.factory = factory;
+		}
+
+		private T acquire() {
+			T codec = codecs.poll();
+			if (codec == null) {
+				return factory.get();
+			}
+			pooled.decrementAndGet();
+			return codec;
+		}
+
+		private void release(T codec) {
+			if (pooled.incrementAndGet() <= maxPooled) {
+				if (codec instanceof Inflater) {
+					((Inflater) codec).reset();
+				} else {
+					((Deflater) codec).reset();
+				}
+				codecs.offer(codec);
+			} else {
+				pooled.decrementAndGet();
+				if (codec instanceof Inflater) {
+					((Inflater) codec).end();
+				} else {
+					((Deflater) codec).end();
+				}
+			}
+		}
+
+	}
+
+	public static final class Builder {
+
+		public static final Builder newInstance() {
+			return new Builder();
+		}
+
+		private boolean gzip = true;
+		private boolean deflate = true;
+		private String requestEncoding;
+		private int requestThreshold = 1024;
+		private int level = Deflater.DEFAULT_COMPRESSION;
+		private int maxPooled = 16;
+
+		private Builder() {
+		}
+
+		// advertise gzip, true by default
+		public Builder gzip(boolean gzip) {
+			this.gzip = gzip;
+			return this;
+		}
+
+		// advertise deflate, true by default
+		public Builder deflate(boolean deflate) {
+			this.deflate = deflate;
+			return this;
+		}
+
+		// gzip, deflate or null to never compress requests, which is the default
+		public Builder requestEncoding(String requestEncoding) {
+			if (requestEncoding != null && !"gzip".equals(requestEncoding) && !"deflate".equals(requestEncoding)) {
+				throw new IllegalArgumentException("Unsupported request encoding: " + requestEncoding);
+			}
+			this.requestEncoding = requestEncoding;
+			return this;
+		}
+
+		// smallest request body worth compressing, 1024 by default
+		public Builder requestThreshold(int requestThreshold) {
+			if (requestThreshold < 0) {
+				throw new IllegalArgumentException("Illegal request threshold: " + requestThreshold);
+			}
+			this.requestThreshold = requestThreshold;
+			return this;
+		}
+
+		public Builder level(int level) {
+			if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+				throw new IllegalArgumentException("Illegal compression level: " + level);
+			}
+			this.level = level;
+			return this;
+		}
+
+		// inflaters and deflaters kept each, 16 by default
+		public Builder maxPooled(int maxPooled) {
+			if (maxPooled < 0) {
+				throw new IllegalArgumentException("Illegal max pooled: " + maxPooled);
+			}
+			this.maxPooled = maxPooled;
+			return this;
+		}
+
+		public HttpCompression build() {
+			return new HttpCompression(this);
+		}
+
+	}
+
+}
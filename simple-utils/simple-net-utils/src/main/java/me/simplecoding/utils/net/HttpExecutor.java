@@ -0,0 +1,13 @@
+package me.simplecoding.utils.net;
+
+import java.io.IOException;
+
+/**
+ * Executes an {@link HttpRequest}. The returned response must be closed to release the underlying connection.
+ */
+@FunctionalInterface
+public interface HttpExecutor {
+
+	HttpResponse execute(HttpRequest request) throws IOException;
+
+}
@@ -0,0 +1,275 @@
+package me.simplecoding.utils.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Ordered HTTP headers kept as flat name/value arrays.
+ * <p>
+ * Names are matched case-insensitively without allocating, by a precomputed ASCII case-insensitive hash and
+ * {@link String#equalsIgnoreCase(String)}. Well-known names are replaced by one shared instance with the usual casing,
+ * which also makes most comparisons an identity check. A header sent more than once keeps one entry per value.
+ */
+public class HttpHeaders {
+
+	private static final String[] WELL_KNOWN_NAMES = { "Accept", "Accept-Charset", "Accept-Encoding",
+			"Accept-Language", "Accept-Ranges", "Age", "Allow", "Authorization", "Cache-Control", "Connection",
+			"Content-Disposition", "Content-Encoding", "Content-Language", "Content-Length", "Content-Location",
+			"Content-Range", "Content-Type", "Cookie", "Date", "ETag", "Expect", "Expires", "Host", "If-Match",
+			"If-Modified-Since", "If-None-Match", "If-Range", "If-Unmodified-Since", "Keep-Alive", "Last-Modified",
+			"Link", "Location", "Origin", "Pragma", "Proxy-Authenticate", "Proxy-Authorization", "Range", "Referer",
+			"Retry-After", "Server", "Set-Cookie", "Strict-Transport-Security", "TE", "Trailer", "Transfer-Encoding",
+			"Upgrade", "User-Agent", "Vary", "Via", "Warning", "WWW-Authenticate", "X-Forwarded-For",
+			"X-Forwarded-Proto", "X-Real-IP", "X-Requested-With" };
+
+	// open addressing by case-insensitive hash
+	private static final String[] wellKnownTable = new String[256];
+
+	static {
+		int mask = wellKnownTable.length - 1;
+		for (String name : WELL_KNOWN_NAMES) {
+			int i = hash(name) & mask;
+			while (wellKnownTable[i] != null) {
+				i = (i + 1) & mask;
+			}
+			wellKnownTable[i] = name;
+		}
+	}
+
+	private static int hash(String name) {
+		int h = 0;
+		for (int i = 0, len = name.length(); i < len; i++) {
+			char c = name.charAt(i);
+			h = 31 * h + (c >= 'A' && c <= 'Z' ? c + 32 : c);
+		}
+		return h;
+	}
+
+	/**
+	 * Returns the shared instance of a well-known header name, whatever the case of the given one, or the name itself.
+	 */
+	public static final String intern(String name) {
+		return intern(name, hash(name));
+	}
+
+	private static String intern(String name, int hash) {
+		int mask = wellKnownTable.length - 1;
+		for (int i = hash & mask;; i = (i + 1) & mask) {
+			String known = wellKnownTable[i];
+			if (known == null) {
+				return name;
+			}
+			if (known == name || known.equalsIgnoreCase(name)) {
+				return known;
+			}
+		}
+	}
+
+	// name0, value0, name1, value1...
+	private String[] entries;
+	private int[] hashes;
+	private int size;
+
+	public HttpHeaders() {
+		this(8);
+	}
+
+	public HttpHeaders(int initialCapacity) {
+		entries = new String[Math.max(initialCapacity, 1) * 2];
+		hashes = new int[Math.max(initialCapacity, 1)];
+	}
+
+	public HttpHeaders add(String name, String value) {
+		if (name == null || value == null) {
+			throw new IllegalArgumentException("Illegal header: " + name + "=" + value);
+		}
+		int hash = hash(name);
+		if (size == hashes.length) {
+			hashes = Arrays.copyOf(hashes, size * 2);
+			entries = Arrays.copyOf(entries, size * 4);
+		}
+		hashes[size] = hash;
+		entries[size << 1] = intern(name, hash);
+		entries[(size << 1) + 1] = value;
+		size++;
+		return this;
+	}
+
+	// replaces the first value in place and removes the others
+	public HttpHeaders set(String name, String value) {
+		int index = indexOf(name, hash(name), 0);
+		if (index < 0) {
+			return add(name, value);
+		}
+		if (value == null) {
+			throw new IllegalArgumentException("Illegal header: " + name + "=" + value);
+		}
+		entries[(index << 1) + 1] = value;
+		removeFrom(name, index + 1);
+		return this;
+	}
+
+	// the first value
+	public String get(String name) {
+		int index = indexOf(name, hash(name), 0);
+		return index < 0 ? null : entries[(index << 1) + 1];
+	}
+
+	public List<String> getAll(String name) {
+		int hash = hash(name);
+		int index = indexOf(name, hash, 0);
+		if (index < 0) {
+			return Collections.emptyList();
+		}
+		int next = indexOf(name, hash, index + 1);
+		if (next < 0) {
+			return Collections.singletonList(entries[(index << 1) + 1]);
+		}
+		List<String> values = new ArrayList<>(4);
+		values.add(entries[(index << 1) + 1]);
+		for (; next >= 0; next = indexOf(name, hash, next + 1)) {
+			values.add(entries[(next << 1) + 1]);
+		}
+		return values;
+	}
+
+	public boolean contains(String name) {
+		return indexOf(name, hash(name), 0) >= 0;
+	}
+
+	// whether any value holds the token in its comma separated list, ignoring case
+	public boolean containsToken(String name, String token) {
+		int hash = hash(name);
+		for (int index = indexOf(name, hash, 0); index >= 0; index = indexOf(name, hash, index + 1)) {
+			String value = entries[(index << 1) + 1];
+			int start = 0;
+			int length = value.length();
+			while (start <= length) {
+				int end = value.indexOf(',', start);
+				if (end < 0) {
+					end = length;
+				}
+				int s = start;
+				int e = end;
+				while (s < e && value.charAt(s) <= ' ') {
+					s++;
+				}
+				while (e > s && value.charAt(e - 1) <= ' ') {
+					e--;
+				}
+				if (e - s == token.length() && value.regionMatches(true, s, token, 0, e - s)) {
+					return true;
+				}
+				start = end + 1;
+			}
+		}
+		return false;
+	}
+
+	// returns the first removed value
+	public String remove(String name) {
+		int index = indexOf(name, hash(name), 0);
+		if (index < 0) {
+			return null;
+		}
+		String first = entries[(index << 1) + 1];
+		removeFrom(name, index);
+		return first;
+	}
+
+	private void removeFrom(String name, int from) {
+		int hash = hash(name);
+		int w = from;
+		for (int r = from; r < size; r++) {
+			if (hashes[r] == hash && matches(entries[r << 1], name)) {
+				continue;
+			}
+			if (w != r) {
+				hashes[w] = hashes[r];
+				entries[w << 1] = entries[r << 1];
+				entries[(w << 1) + 1] = entries[(r << 1) + 1];
+			}
+			w++;
+		}
+		Arrays.fill(entries, w << 1, size << 1, null);
+		size = w;
+	}
+
+	private int indexOf(String name, int hash, int from) {
+		int[] hashes = this.hashes;
+		String[] entries = this.entries;
+		for (int i = from; i < size; i++) {
+			if (hashes[i] == hash && matches(entries[i << 1], name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(String stored, String name) {
+		return stored == name || stored.equalsIgnoreCase(name);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public String name(int index) {
+		checkIndex(index);
+		return entries[index << 1];
+	}
+
+	public String value(int index) {
+		checkIndex(index);
+		return entries[(index << 1) + 1];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	// once per value, in order
+	public void forEach(BiConsumer<String, String> action) {
+		for (int i = 0; i < size; i++) {
+			action.accept(entries[i << 1], entries[(i << 1) + 1]);
+		}
+	}
+
+	public HttpHeaders addAll(HttpHeaders headers) {
+		for (int i = 0; i < headers.size; i++) {
+			add(headers.entries[i << 1], headers.entries[(i << 1) + 1]);
+		}
+		return this;
+	}
+
+	public HttpHeaders copy() {
+		return new HttpHeaders(Math.max(size, 8)).addAll(this);
+	}
+
+	public void clear() {
+		Arrays.fill(entries, 0, size << 1, null);
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder(size * 32).append('{');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				b.append(", ");
+			}
+			b.append(entries[i << 1]).append('=').append(entries[(i << 1) + 1]);
+		}
+		return b.append('}').toString();
+	}
+
+}
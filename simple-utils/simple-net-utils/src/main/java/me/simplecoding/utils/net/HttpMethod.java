@@ -24,4 +24,9 @@ public enum HttpMethod {
 		return permitBody;
 	}
 
+	// safe to send more than once, see RFC 7231 section 4.2.2
+	public boolean idempotent() {
+		return this != POST && this != PATCH;
+	}
+
 }
@@ -1,11 +1,14 @@
 package me.simplecoding.utils.net;
 
+import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 public class HttpRequest {
@@ -13,9 +16,20 @@ public class HttpRequest {
 	private URLEncoder urlEncoder;
 	private HttpMethod method = HttpMethod.GET;
 	private String url;
-	private final Map<String, String> headers = new LinkedHashMap<>();
-	private final Map<String, List<String>> queryParams = new LinkedHashMap<>();
+	private final HttpHeaders headers = new HttpHeaders();
+	private final Map<String, QueryValues> queryParams = new LinkedHashMap<>();
+	private final Map<String, List<String>> queryParamsView = Collections.unmodifiableMap(queryParams);
 	private byte[] body;
+	private HttpBody httpBody;
+	private HttpCompression compression;
+	// 0 leaves it to the executor
+	private long connectTimeoutMillis;
+	private long readTimeoutMillis;
+	// System.nanoTime() based
+	private boolean hasDeadline;
+	private long deadlineNanos;
+	// built by completeUrl(), reset whenever url, query params or encoder change
+	private String completeUrl;
 
 	public URLEncoder urlEncoder() {
 		return urlEncoder;
@@ -23,6 +37,7 @@ public class HttpRequest {
 
 	public HttpRequest urlEncoder(URLEncoder urlEncoder) {
 		this.urlEncoder = urlEncoder;
+		this.completeUrl = null;
 		return this;
 	}
 
@@ -41,33 +56,136 @@ public class HttpRequest {
 
 	public HttpRequest url(String url) {
 		this.url = url;
+		this.completeUrl = null;
 		return this;
 	}
 
+	// null when the body was set as an HttpBody
 	public byte[] body() {
 		return body;
 	}
 
 	public HttpRequest body(byte[] body) {
 		this.body = body;
+		this.httpBody = body == null ? null : HttpBody.of(body);
 		return this;
 	}
 
-	public Map<String, String> headers() {
+	public HttpBody httpBody() {
+		return httpBody;
+	}
+
+	public HttpRequest body(HttpBody httpBody) {
+		this.body = null;
+		this.httpBody = httpBody;
+		return this;
+	}
+
+	public HttpCompression compression() {
+		return compression;
+	}
+
+	// null, the default, sends bodies as they are and leaves responses alone
+	public HttpRequest compression(HttpCompression compression) {
+		this.compression = compression;
+		return this;
+	}
+
+	public long connectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	public HttpRequest connectTimeout(long time, TimeUnit unit) {
+		this.connectTimeoutMillis = checkTimeout(unit.toMillis(time));
+		return this;
+	}
+
+	// longest wait for any single read, not for the whole response
+	public long readTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+	public HttpRequest readTimeout(long time, TimeUnit unit) {
+		this.readTimeoutMillis = checkTimeout(unit.toMillis(time));
+		return this;
+	}
+
+	private static long checkTimeout(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Illegal timeout: " + millis + " ms");
+		}
+		return millis;
+	}
+
+	public boolean hasDeadline() {
+		return hasDeadline;
+	}
+
+	public long deadlineNanos() {
+		return deadlineNanos;
+	}
+
+	// a System.nanoTime() value, connecting, reading and retrying all stop there
+	public HttpRequest deadlineNanos(long deadlineNanos) {
+		this.hasDeadline = true;
+		this.deadlineNanos = deadlineNanos;
+		return this;
+	}
+
+	public HttpRequest deadlineAfter(long time, TimeUnit unit) {
+		return deadlineNanos(System.nanoTime() + unit.toNanos(time));
+	}
+
+	public HttpRequest clearDeadline() {
+		this.hasDeadline = false;
+		this.deadlineNanos = 0;
+		return this;
+	}
+
+	// Long.MAX_VALUE without a deadline
+	public long remainingNanos() {
+		return hasDeadline ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+	}
+
+	// the timeout of a blocking step capped by the deadline, 0 means none like for sockets
+	int timeoutMillis(long requestMillis, long defaultMillis) throws SocketTimeoutException {
+		long millis = requestMillis > 0 ? requestMillis : defaultMillis;
+		if (hasDeadline) {
+			long remaining = remainingNanos();
+			if (remaining <= 0) {
+				throw new SocketTimeoutException("Deadline exceeded");
+			}
+			long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remaining + 999_999);
+			millis = millis == 0 ? remainingMillis : Math.min(millis, remainingMillis);
+		}
+		return (int) Math.min(millis, Integer.MAX_VALUE);
+	}
+
+	public HttpHeaders headers() {
 		return headers;
 	}
 
+	// names are case-insensitive
 	public String header(String name) {
 		return headers.get(name);
 	}
 
+	// replaces any value already set
 	public HttpRequest header(String name, String value) {
-		headers.put(name, value);
+		headers.set(name, value);
+		return this;
+	}
+
+	// one more value for a header sent more than once
+	public HttpRequest addHeader(String name, String value) {
+		headers.add(name, value);
 		return this;
 	}
 
 	public HttpRequest fixHeader(String name, Supplier<String> valueSupplier) {
-		headers.computeIfAbsent(name, k -> valueSupplier.get());
+		if (!headers.contains(name)) {
+			headers.add(name, valueSupplier.get());
+		}
 		return this;
 	}
 
@@ -75,12 +193,14 @@ public class HttpRequest {
 		return headers.remove(name);
 	}
 
+	// read only, use addQuery and removeQuery to change it
 	public Map<String, List<String>> queryParams() {
-		return queryParams;
+		return queryParamsView;
 	}
 
 	public HttpRequest addQuery(String name, String value) {
-		queryParams.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+		queryParams.computeIfAbsent(name, k -> new QueryValues()).add0(value);
+		completeUrl = null;
 		return this;
 	}
 
@@ -90,36 +210,89 @@ public class HttpRequest {
 	}
 
 	public List<String> querys(String name) {
-		List<String> values = queryParams.get(name);
-		return values == null ? null : Collections.unmodifiableList(values);
+		return queryParams.get(name);
 	}
 
 	public List<String> removeQuery(String name) {
-		return queryParams.remove(name);
+		List<String> values = queryParams.remove(name);
+		if (values != null) {
+			completeUrl = null;
+		}
+		return values;
 	}
 
 	public String completeUrl() {
+		String completeUrl = this.completeUrl;
+		if (completeUrl == null) {
+			this.completeUrl = completeUrl = buildCompleteUrl();
+		}
+		return completeUrl;
+	}
+
+	private String buildCompleteUrl() {
 		if (queryParams.isEmpty()) {
 			return url;
 		}
 		if (urlEncoder == null) {
 			urlEncoder = DefaultURLEncoderHolder.defaultEncoder;
 		}
-		StringBuilder b = new StringBuilder(url).append("?");
+		// plain lengths plus some room for escapes
+		int capacity = url.length() + 16;
+		for (Map.Entry<String, QueryValues> e : queryParams.entrySet()) {
+			int nameLength = e.getKey().length();
+			QueryValues values = e.getValue();
+			for (int i = 0; i < values.size; i++) {
+				capacity += nameLength + values.values[i].length() + 2;
+			}
+		}
+		StringBuilder b = new StringBuilder(capacity).append(url).append('?');
 		int baseLength = b.length();
-		queryParams.forEach((n, vs) -> vs.forEach(v -> {
-			if (b.length() != baseLength) {
-				b.append('&');
+		for (Map.Entry<String, QueryValues> e : queryParams.entrySet()) {
+			String name = e.getKey();
+			QueryValues values = e.getValue();
+			for (int i = 0; i < values.size; i++) {
+				if (b.length() != baseLength) {
+					b.append('&');
+				}
+				urlEncoder.encodeTo(name, b).append('=');
+				urlEncoder.encodeTo(values.values[i], b);
 			}
-			b.append(urlEncoder.encode(n)).append('=').append(urlEncoder.encode(v));
-		}));
-		return null;
+		}
+		return b.toString();
 	}
 
 	@Override
 	public String toString() {
 		return "HttpRequest[method=" + method + ", url=" + url + ", headers=" + headers + ", queryParams=" + queryParams
-				+ ", body=" + (body == null ? null : new String(body, Charset.forName("UTF-8"))) + "]";
+				+ ", body=" + (body == null ? httpBody : new String(body, Charset.forName("UTF-8"))) + "]";
+	}
+
+	// values of a query parameter, only HttpRequest may add to it
+	private static final class QueryValues extends AbstractList<String> {
+
+		private String[] values = new String[1];
+		private int size;
+
+		private void add0(String value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		public String get(int index) {
+			if (index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return values[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
 	}
 
 	private static final class DefaultURLEncoderHolder {
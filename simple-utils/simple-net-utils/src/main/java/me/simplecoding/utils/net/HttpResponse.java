@@ -1,26 +1,34 @@
 package me.simplecoding.utils.net;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
-public class HttpResponse {
+public class HttpResponse implements AutoCloseable {
 
 	private final int code;
 	private final String message;
-	private final Map<String, String> headers = new LinkedHashMap<>();
+	private final HttpHeaders headers;
 	private final InputStream bodyStream;
 
 	public HttpResponse(int code, String message, InputStream bodyStream) {
-		this.code = code;
-		this.message = message;
-		this.bodyStream = bodyStream;
+		this(code, message, new HttpHeaders(), bodyStream);
 	}
 
 	public HttpResponse(int code, String message, Map<String, String> headers, InputStream bodyStream) {
-		this(code, message, bodyStream);
-		this.headers.putAll(headers);
+		this(code, message, new HttpHeaders(Math.max(headers.size(), 8)), bodyStream);
+		headers.forEach(this.headers::add);
+	}
+
+	// takes the headers as they are
+	public HttpResponse(int code, String message, HttpHeaders headers, InputStream bodyStream) {
+		this.code = code;
+		this.message = message;
+		this.headers = headers;
+		this.bodyStream = bodyStream;
 	}
 
 	public int code() {
@@ -39,16 +47,28 @@ public class HttpResponse {
 		return message;
 	}
 
+	public HttpHeaders headers() {
+		return headers;
+	}
+
+	// lower case names with the values of repeated headers joined by ", ", a copy
 	public Map<String, String> getHeaders() {
-		return Collections.unmodifiableMap(headers);
+		Map<String, String> map = new LinkedHashMap<>();
+		headers.forEach((k, v) -> map.merge(k.toLowerCase(), v, (a, b) -> a + ", " + b));
+		return Collections.unmodifiableMap(map);
 	}
 
+	// the first value, names are case-insensitive
 	public String header(String name) {
-		return headers.get(name.toLowerCase());
+		return headers.get(name);
+	}
+
+	public List<String> headerValues(String name) {
+		return headers.getAll(name);
 	}
 
 	HttpResponse header(String name, String value) {
-		headers.put(name.toLowerCase(), value);
+		headers.add(name, value);
 		return this;
 	}
 
@@ -61,6 +81,23 @@ public class HttpResponse {
 		return bodyStream;
 	}
 
+	// applies the handler to the body and closes the response
+	public <T> T body(HttpBodyHandler<T> handler) throws IOException {
+		try {
+			return handler.handle(this);
+		} finally {
+			close();
+		}
+	}
+
+	// closes the body, which gives a pooled connection back to its pool
+	@Override
+	public void close() throws IOException {
+		if (bodyStream != null) {
+			bodyStream.close();
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "HttpResponse[code=" + code + ", message=" + message + ", headers=" + headers + ", bodyStream="
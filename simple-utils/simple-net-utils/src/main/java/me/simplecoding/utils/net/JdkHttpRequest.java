@@ -24,15 +24,32 @@ public class JdkHttpRequest implements AutoCloseable {
 		this.connection = (HttpURLConnection) new URL(completeUrl).openConnection();
 		connection.setInstanceFollowRedirects(true);
 		connection.setUseCaches(false);
+		connection.setConnectTimeout(request.timeoutMillis(request.connectTimeoutMillis(), 0));
+		connection.setReadTimeout(request.timeoutMillis(request.readTimeoutMillis(), 0));
 		HttpMethod method = request.method();
 		connection.setRequestMethod(method.name());
 		// add headers
 		request.headers().forEach(connection::addRequestProperty);
+		HttpCompression compression = request.compression();
+		if (compression != null && connection.getRequestProperty("accept-encoding") == null) {
+			connection.setRequestProperty("Accept-Encoding", compression.acceptEncoding());
+		}
 		// body
 		if (method.permitBody()) {
-			int contentLength = request.body().length;
-			if (method.requiredBody() || contentLength > 0) {
-				connection.setRequestProperty("content-length", String.valueOf(contentLength));
+			HttpBody body = request.httpBody();
+			if (compression != null && connection.getRequestProperty("content-encoding") == null) {
+				HttpBody compressed = compression.compress(body);
+				if (compressed != body) {
+					connection.setRequestProperty("Content-Encoding", compression.requestEncoding());
+					body = compressed;
+				}
+			}
+			long contentLength = body == null ? 0 : body.contentLength();
+			// stream the body instead of letting the connection buffer it
+			if (contentLength < 0) {
+				connection.setChunkedStreamingMode(0);
+			} else if (method.requiredBody() || contentLength > 0) {
+				connection.setFixedLengthStreamingMode(contentLength);
 			}
 			if (connection.getRequestProperty("content-type") == null) {
 				connection.setRequestProperty("content-type", "application/x-www-form-urlencoded");
@@ -40,24 +57,25 @@ public class JdkHttpRequest implements AutoCloseable {
 			connection.setDoOutput(true);
 			connection.connect();
 			try (OutputStream out = connection.getOutputStream()) {
-				out.write(request.body());
+				if (body != null) {
+					body.writeTo(out);
+				}
 				out.flush();
 			}
 		} else {
 			connection.connect();
 		}
 		int responseCode = connection.getResponseCode();
-		this.response = new HttpResponse(responseCode, connection.getResponseMessage(),
+		HttpResponse response = new HttpResponse(responseCode, connection.getResponseMessage(),
 				responseCode >= 200 && responseCode < 400 ? connection.getInputStream() : connection.getErrorStream());
 		connection.getHeaderFields().forEach((k, v) -> {
 			if (k != null) {
-				if (v.size() == 1) {
-					response.header(k, v.get(0));
-				} else {
-					response.header(k, String.join(", ", v));
+				for (String value : v) {
+					response.header(k, value);
 				}
 			}
 		});
+		this.response = compression == null ? response : compression.decode(response);
 	}
 
 	public HttpRequest request() {
@@ -0,0 +1,58 @@
+package me.simplecoding.utils.net;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the latest latencies in a ring and a percentile of them, recomputed every {@code window / 8} samples by
+ * whichever recording thread gets there, so reading it costs nothing.
+ */
+class LatencyTracker {
+
+	private final AtomicLongArray samples;
+	private final int mask;
+	private final int recomputeMask;
+	private final double percentile;
+	private final AtomicLong count = new AtomicLong();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final long[] sorted;
+	private volatile long value = -1;
+
+	LatencyTracker(int window, double percentile) {
+		int size = Integer.highestOneBit(Math.max(window - 1, 7)) << 1;
+		this.samples = new AtomicLongArray(size);
+		this.mask = size - 1;
+		this.recomputeMask = size / 8 - 1;
+		this.percentile = percentile;
+		this.sorted = new long[size];
+	}
+
+	void record(long nanos) {
+		long n = count.getAndIncrement();
+		samples.lazySet((int) (n & mask), nanos);
+		if ((n & recomputeMask) == recomputeMask && lock.tryLock()) {
+			try {
+				int size = (int) Math.min(n + 1, sorted.length);
+				for (int i = 0; i < size; i++) {
+					sorted[i] = samples.get(i);
+				}
+				Arrays.sort(sorted, 0, size);
+				value = sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile * size) - 1))];
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	long count() {
+		return count.get();
+	}
+
+	// -1 until the first recompute
+	long valueNanos() {
+		return value;
+	}
+
+}
@@ -0,0 +1,449 @@
+package me.simplecoding.utils.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FileRegion;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Executes requests asynchronously on a few Netty event loop threads.
+ * <p>
+ * Each host gets a {@link FixedChannelPool} bounding its connections and the acquires waiting for one. On top of that
+ * at most {@code maxInFlight} requests are accepted at a time, further requests fail at once with a
+ * {@link RejectedExecutionException} so callers can back off. Bodies are aggregated, up to {@code maxContentLength}.
+ * <p>
+ * Netty is an optional dependency of this module, add {@code io.netty:netty-all} to use this class.
+ */
+public class NettyAsyncHttpClient implements HttpExecutor, AutoCloseable {
+
+	private final EventLoopGroup group;
+	private final Bootstrap bootstrap;
+	private final SslContext sslContext;
+	private final int maxConnectionsPerHost;
+	private final int maxPendingAcquires;
+	private final long acquireTimeoutMillis;
+	private final long responseTimeoutMillis;
+	private final int maxContentLength;
+	private final int maxInFlight;
+	private final Semaphore inFlight;
+	private final ConcurrentHashMap<String, FixedChannelPool> pools = new ConcurrentHashMap<>();
+	private volatile boolean closed;
+
+	private NettyAsyncHttpClient(Builder builder) throws SSLException {
+		this.group = new NioEventLoopGroup(builder.ioThreads);
+		this.bootstrap = new Bootstrap().group(group).channel(NioSocketChannel.class)
+				.option(ChannelOption.TCP_NODELAY, true).option(ChannelOption.SO_KEEPALIVE, true)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) builder.connectTimeoutMillis);
+		this.sslContext = builder.sslContext == null ? SslContextBuilder.forClient().build() : builder.sslContext;
+		this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+		this.maxPendingAcquires = builder.maxPendingAcquires;
+		this.acquireTimeoutMillis = builder.acquireTimeoutMillis;
+		this.responseTimeoutMillis = builder.responseTimeoutMillis;
+		this.maxContentLength = builder.maxContentLength;
+		this.maxInFlight = builder.maxInFlight;
+		this.inFlight = new Semaphore(maxInFlight);
+	}
+
+	public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+		CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+		if (closed) {
+			future.completeExceptionally(new IllegalStateException("NettyAsyncHttpClient is closed"));
+			return future;
+		}
+		if (!inFlight.tryAcquire()) {
+			future.completeExceptionally(new RejectedExecutionException("Too many requests in flight: " + maxInFlight));
+			return future;
+		}
+		future.whenComplete((r, e) -> inFlight.release());
+		FixedChannelPool pool;
+		List<Object> messages;
+		long timeoutMillis;
+		try {
+			timeoutMillis = request.timeoutMillis(request.readTimeoutMillis(), responseTimeoutMillis);
+			URI uri = new URI(request.completeUrl());
+			String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+			boolean https = "https".equals(scheme);
+			if (!https && !"http".equals(scheme)) {
+				throw new IllegalArgumentException("Unsupported protocol: " + scheme);
+			}
+			String host = uri.getHost();
+			int port = uri.getPort() < 0 ? (https ? 443 : 80) : uri.getPort();
+			pool = pools.computeIfAbsent(scheme + "://" + host + ":" + port, k -> newPool(host, port, https));
+			messages = toMessages(request, uri, https);
+		} catch (URISyntaxException | IOException | RuntimeException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		pool.acquire().addListener((Future<Channel> acquired) -> {
+			if (!acquired.isSuccess()) {
+				messages.forEach(NettyAsyncHttpClient::discard);
+				future.completeExceptionally(acquired.cause());
+				return;
+			}
+			Channel channel = acquired.getNow();
+			ResponseHandler handler = channel.pipeline().get(ResponseHandler.class);
+			handler.begin(channel, pool, future, request.compression(), timeoutMillis);
+			for (int i = 0; i < messages.size(); i++) {
+				ChannelFuture written = i == messages.size() - 1 ? channel.writeAndFlush(messages.get(i))
+						: channel.write(messages.get(i));
+				written.addListener(w -> {
+					if (!w.isSuccess()) {
+						channel.eventLoop().execute(() -> handler.fail(channel, w.cause()));
+					}
+				});
+			}
+		});
+		return future;
+	}
+
+	// blocks until the response arrived, for callers that want a plain HttpExecutor
+	@Override
+	public HttpResponse execute(HttpRequest request) throws IOException {
+		try {
+			return executeAsync(request).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for the response");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private FixedChannelPool newPool(String host, int port, boolean https) {
+		Bootstrap b = bootstrap.clone().remoteAddress(InetSocketAddress.createUnresolved(host, port));
+		AbstractChannelPoolHandler handler = new AbstractChannelPoolHandler() {
+			@Override
+			public void channelCreated(Channel ch) {
+				ChannelPipeline p = ch.pipeline();
+				if (https) {
+					p.addLast(sslContext.newHandler(ch.alloc(), host, port));
+				}
+				p.addLast(new HttpClientCodec());
+				p.addLast(new ChunkedWriteHandler());
+				p.addLast(new HttpObjectAggregator(maxContentLength));
+				p.addLast(new ResponseHandler());
+			}
+		};
+		return new FixedChannelPool(b, handler, ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL,
+				acquireTimeoutMillis, maxConnectionsPerHost, maxPendingAcquires);
+	}
+
+	private static void discard(Object message) {
+		if (message instanceof ChunkedInput) {
+			try {
+				((ChunkedInput<?>) message).close();
+			} catch (Exception ignored) {
+			}
+		} else {
+			ReferenceCountUtil.release(message);
+		}
+	}
+
+	// the request head followed by the body content if it is streamed
+	private static List<Object> toMessages(HttpRequest request, URI uri, boolean https) throws IOException {
+		HttpMethod method = request.method();
+		String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+		if (uri.getRawQuery() != null) {
+			path = path + "?" + uri.getRawQuery();
+		}
+		io.netty.handler.codec.http.HttpMethod nettyMethod = io.netty.handler.codec.http.HttpMethod
+				.valueOf(method.name());
+		HttpBody body = method.permitBody() ? request.httpBody() : null;
+		HttpCompression compression = request.compression();
+		boolean compressed = false;
+		if (body != null && compression != null && !request.headers().contains("Content-Encoding")) {
+			HttpBody encoded = compression.compress(body);
+			compressed = encoded != body;
+			body = encoded;
+		}
+		long contentLength = body == null ? 0 : body.contentLength();
+		io.netty.handler.codec.http.HttpRequest head;
+		Object content = null;
+		if (contentLength == 0) {
+			head = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, path, Unpooled.EMPTY_BUFFER);
+		} else if (body instanceof HttpBodies.BytesBody) {
+			HttpBodies.BytesBody bytes = (HttpBodies.BytesBody) body;
+			head = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, path,
+					Unpooled.wrappedBuffer(bytes.bytes, bytes.offset, bytes.length));
+		} else if (body instanceof HttpBodies.BuffersBody) {
+			head = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, path,
+					Unpooled.wrappedBuffer(((HttpBodies.BuffersBody) body).buffers()));
+		} else {
+			head = new DefaultHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, path);
+			if (body instanceof HttpBodies.FileBody && !https) {
+				// zero copy, TLS needs the bytes in user space
+				HttpBodies.FileBody file = (HttpBodies.FileBody) body;
+				content = new DefaultFileRegion(FileChannel.open(file.file, StandardOpenOption.READ), file.position,
+						file.count);
+			} else {
+				content = new HttpChunkedInput(new ChunkedStream(body.newInputStream()));
+			}
+		}
+		io.netty.handler.codec.http.HttpHeaders headers = head.headers();
+		request.headers().forEach(headers::add);
+		headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+		if (compression != null && !headers.contains(HttpHeaderNames.ACCEPT_ENCODING)) {
+			headers.set(HttpHeaderNames.ACCEPT_ENCODING, compression.acceptEncoding());
+		}
+		if (compressed) {
+			headers.set(HttpHeaderNames.CONTENT_ENCODING, compression.requestEncoding());
+		}
+		if (!headers.contains(HttpHeaderNames.HOST)) {
+			headers.set(HttpHeaderNames.HOST, uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+		}
+		if (method.permitBody()) {
+			if (contentLength < 0) {
+				HttpUtil.setTransferEncodingChunked(head, true);
+			} else if (method.requiredBody() || contentLength > 0) {
+				headers.set(HttpHeaderNames.CONTENT_LENGTH, contentLength);
+			}
+			if (!headers.contains(HttpHeaderNames.CONTENT_TYPE)) {
+				headers.set(HttpHeaderNames.CONTENT_TYPE, "application/x-www-form-urlencoded");
+			}
+		}
+		if (content == null) {
+			return Collections.singletonList(head);
+		}
+		if (content instanceof FileRegion) {
+			return Arrays.asList(head, content, LastHttpContent.EMPTY_LAST_CONTENT);
+		}
+		return Arrays.asList(head, content);
+	}
+
+	public int inFlight() {
+		return maxInFlight - inFlight.availablePermits();
+	}
+
+	public int maxInFlight() {
+		return maxInFlight;
+	}
+
+	// in flight requests are failed as their channels close
+	@Override
+	public void close() {
+		closed = true;
+		pools.values().forEach(FixedChannelPool::close);
+		group.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "NettyAsyncHttpClient[hosts=" + pools.size() + ", inFlight=" + inFlight() + ", maxInFlight="
+				+ maxInFlight + "]";
+	}
+
+	// one per channel, handles the exchange in progress on it
+	private final class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+		private volatile CompletableFuture<HttpResponse> future;
+		private volatile FixedChannelPool pool;
+		private volatile HttpCompression compression;
+		private ScheduledFuture<?> timeout;
+
+		// the request read timeout or deadline, if any, replaces the response timeout
+		private void begin(Channel channel, FixedChannelPool pool, CompletableFuture<HttpResponse> future,
+				HttpCompression compression, long timeoutMillis) {
+			this.pool = pool;
+			this.compression = compression;
+			this.future = future;
+			if (timeoutMillis > 0) {
+				timeout = channel.eventLoop().schedule(() -> fail(channel, new SocketTimeoutException(
+						"No response within " + timeoutMillis + " ms")), timeoutMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		private CompletableFuture<HttpResponse> finish(Channel channel, boolean keepAlive) {
+			CompletableFuture<HttpResponse> future = this.future;
+			FixedChannelPool pool = this.pool;
+			if (future == null) {
+				return null;
+			}
+			this.future = null;
+			this.pool = null;
+			if (timeout != null) {
+				timeout.cancel(false);
+				timeout = null;
+			}
+			if (!keepAlive) {
+				channel.close();
+			}
+			pool.release(channel);
+			return future;
+		}
+
+		private void fail(Channel channel, Throwable cause) {
+			CompletableFuture<HttpResponse> future = finish(channel, false);
+			if (future != null) {
+				future.completeExceptionally(cause);
+			}
+		}
+
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) {
+			HttpHeaders headers = new HttpHeaders(Math.max(msg.headers().size(), 8));
+			msg.headers().forEach(e -> headers.add(e.getKey(), e.getValue()));
+			HttpResponse response = new HttpResponse(msg.status().code(), msg.status().reasonPhrase(), headers,
+					new ByteArrayInputStream(ByteBufUtil.getBytes(msg.content())));
+			HttpCompression compression = this.compression;
+			if (compression != null) {
+				response = compression.decode(response);
+			}
+			CompletableFuture<HttpResponse> future = finish(ctx.channel(), HttpUtil.isKeepAlive(msg));
+			if (future != null) {
+				future.complete(response);
+			}
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+			fail(ctx.channel(), new IOException("Connection closed before the response"));
+			super.channelInactive(ctx);
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+			fail(ctx.channel(), cause);
+			ctx.close();
+		}
+
+	}
+
+	public static final class Builder {
+
+		public static final Builder newInstance() {
+			return new Builder();
+		}
+
+		private int ioThreads = 2;
+		private int maxConnectionsPerHost = 16;
+		private int maxPendingAcquires = 1024;
+		private int maxInFlight = 4096;
+		private long acquireTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+		private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+		private long responseTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+		private int maxContentLength = 10 * 1024 * 1024;
+		private SslContext sslContext;
+
+		private Builder() {
+		}
+
+		public Builder ioThreads(int ioThreads) {
+			this.ioThreads = ioThreads;
+			return this;
+		}
+
+		public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+			this.maxConnectionsPerHost = maxConnectionsPerHost;
+			return this;
+		}
+
+		// requests waiting for a connection to one host, beyond that they fail
+		public Builder maxPendingAcquires(int maxPendingAcquires) {
+			this.maxPendingAcquires = maxPendingAcquires;
+			return this;
+		}
+
+		public Builder maxInFlight(int maxInFlight) {
+			this.maxInFlight = maxInFlight;
+			return this;
+		}
+
+		public Builder acquireTimeout(long time, TimeUnit unit) {
+			this.acquireTimeoutMillis = unit.toMillis(time);
+			return this;
+		}
+
+		public Builder connectTimeout(long time, TimeUnit unit) {
+			this.connectTimeoutMillis = unit.toMillis(time);
+			return this;
+		}
+
+		// from sending the request to receiving the whole response, 0 for none
+		public Builder responseTimeout(long time, TimeUnit unit) {
+			this.responseTimeoutMillis = unit.toMillis(time);
+			return this;
+		}
+
+		public Builder maxContentLength(int maxContentLength) {
+			this.maxContentLength = maxContentLength;
+			return this;
+		}
+
+		public Builder sslContext(SslContext sslContext) {
+			this.sslContext = sslContext;
+			return this;
+		}
+
+		public NettyAsyncHttpClient build() throws SSLException {
+			if (ioThreads < 0 || maxConnectionsPerHost <= 0 || maxPendingAcquires <= 0 || maxInFlight <= 0
+					|| maxContentLength <= 0) {
+				throw new IllegalArgumentException("Limits must be positive");
+			}
+			if (acquireTimeoutMillis < 0 || connectTimeoutMillis < 0 || responseTimeoutMillis < 0) {
+				throw new IllegalArgumentException("Timeouts must not be negative");
+			}
+			return new NettyAsyncHttpClient(this);
+		}
+
+	}
+
+}
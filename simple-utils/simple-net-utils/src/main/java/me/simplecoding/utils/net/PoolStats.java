@@ -0,0 +1,69 @@
+package me.simplecoding.utils.net;
+
+/**
+ * A snapshot of the connections of a {@link PooledHttpClient}, for one host or summed over all of them.
+ */
+public final class PoolStats {
+
+	private final int leased;
+	private final int idle;
+	private final int pending;
+	private final int max;
+	private final long created;
+	private final long reused;
+	private final long closed;
+
+	PoolStats(int leased, int idle, int pending, int max, long created, long reused, long closed) {
+		this.leased = leased;
+		this.idle = idle;
+		this.pending = pending;
+		this.max = max;
+		this.created = created;
+		this.reused = reused;
+		this.closed = closed;
+	}
+
+	PoolStats plus(PoolStats o) {
+		return new PoolStats(leased + o.leased, idle + o.idle, pending + o.pending, max + o.max, created + o.created,
+				reused + o.reused, closed + o.closed);
+	}
+
+	// connections currently executing a request or holding an unread body
+	public int leased() {
+		return leased;
+	}
+
+	public int idle() {
+		return idle;
+	}
+
+	// callers waiting for a connection
+	public int pending() {
+		return pending;
+	}
+
+	public int max() {
+		return max;
+	}
+
+	public long created() {
+		return created;
+	}
+
+	// times an idle connection was handed out again
+	public long reused() {
+		return reused;
+	}
+
+	// connections closed because they expired, went stale, failed or could not be kept alive
+	public long closed() {
+		return closed;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStats[leased=" + leased + ", idle=" + idle + ", pending=" + pending + ", max=" + max + ", created="
+				+ created + ", reused=" + reused + ", closed=" + closed + "]";
+	}
+
+}
@@ -0,0 +1,788 @@
+package me.simplecoding.utils.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Executes requests over persistent HTTP/1.1 connections kept in a pool per scheme, host and port.
+ * <p>
+ * A connection goes back to its pool once the response body has been read to the end or the response is closed, so
+ * responses must always be closed. Idle connections are closed after the idle timeout and checked before reuse when
+ * they have been idle longer than {@code validateAfterInactivity}. Proxies are not supported.
+ */
+public class PooledHttpClient implements HttpExecutor, AutoCloseable {
+
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+	private static final byte[] CRLF_CRLF = { '\r', '\n', '\r', '\n' };
+	private static final int MAX_LINE_LENGTH = 64 * 1024;
+	// bodies left unread on close are drained up to this to keep the connection
+	private static final int MAX_DRAIN = 64 * 1024;
+
+	private final int maxConnectionsPerHost;
+	private final long idleTimeoutNanos;
+	private final long validateAfterInactivityNanos;
+	private final long acquireTimeoutNanos;
+	private final int connectTimeoutMillis;
+	private final int readTimeoutMillis;
+	private final SSLSocketFactory sslSocketFactory;
+	private final ConcurrentHashMap<String, HostPool> pools = new ConcurrentHashMap<>();
+	private volatile boolean closed;
+
+	private PooledHttpClient(Builder builder) {
+		this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+		this.idleTimeoutNanos = builder.idleTimeoutNanos;
+		this.validateAfterInactivityNanos = builder.validateAfterInactivityNanos;
+		this.acquireTimeoutNanos = builder.acquireTimeoutNanos;
+		this.connectTimeoutMillis = (int) TimeUnit.NANOSECONDS.toMillis(builder.connectTimeoutNanos);
+		this.readTimeoutMillis = (int) TimeUnit.NANOSECONDS.toMillis(builder.readTimeoutNanos);
+		this.sslSocketFactory = builder.sslSocketFactory == null ? (SSLSocketFactory) SSLSocketFactory.getDefault()
+				: builder.sslSocketFactory;
+	}
+
+	@Override
+	public HttpResponse execute(HttpRequest request) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("PooledHttpClient is closed");
+		}
+		URL url = new URL(request.completeUrl());
+		String protocol = url.getProtocol().toLowerCase();
+		boolean https = "https".equals(protocol);
+		if (!https && !"http".equals(protocol)) {
+			throw new IllegalArgumentException("Unsupported protocol: " + protocol);
+		}
+		String host = url.getHost();
+		int port = url.getPort() < 0 ? url.getDefaultPort() : url.getPort();
+		HostPool pool = pools.computeIfAbsent(protocol + "://" + host + ":" + port,
+				k -> new HostPool(host, port, https));
+		for (boolean retried = false;; retried = true) {
+			PooledConnection connection = pool.acquire(request);
+			try {
+				return exchange(connection, request, url);
+			} catch (IOException e) {
+				connection.release(false);
+				// the server may have closed a kept alive connection just before we sent the request
+				if (connection.reused && !connection.responseStarted && !retried && request.method().idempotent()
+						&& request.remainingNanos() > 0) {
+					continue;
+				}
+				throw e;
+			} catch (RuntimeException | Error e) {
+				connection.release(false);
+				throw e;
+			}
+		}
+	}
+
+	private HttpResponse exchange(PooledConnection connection, HttpRequest request, URL url) throws IOException {
+		HttpMethod method = request.method();
+		connection.socket.setSoTimeout(request.timeoutMillis(request.readTimeoutMillis(), readTimeoutMillis));
+		writeRequest(connection, request, url);
+		InputStream in = connection.in;
+		String statusLine;
+		int code;
+		do {
+			statusLine = readLine(in);
+			if (statusLine == null) {
+				throw new EOFException("Connection closed before the response");
+			}
+			connection.responseStarted = true;
+			code = parseCode(statusLine);
+			if (code >= 100 && code < 200 && code != 101) {
+				// skip interim responses such as 100 Continue
+				while (!readHeaderLine(in).isEmpty()) {
+				}
+			}
+		} while (code >= 100 && code < 200 && code != 101);
+		int messageStart = statusLine.indexOf(' ', statusLine.indexOf(' ') + 1);
+		String message = messageStart < 0 ? "" : statusLine.substring(messageStart + 1);
+		HttpHeaders headers = new HttpHeaders();
+		for (String line; !(line = readHeaderLine(in)).isEmpty();) {
+			int colon = line.indexOf(':');
+			if (colon <= 0) {
+				throw new IOException("Malformed header line: " + line);
+			}
+			headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+		}
+		boolean http11 = statusLine.startsWith("HTTP/1.1");
+		boolean keepAlive = http11 ? !headers.containsToken("Connection", "close")
+				: headers.containsToken("Connection", "keep-alive");
+		InputStream body;
+		String contentLength = headers.get("Content-Length");
+		if (method == HttpMethod.HEAD || code == 204 || code == 304) {
+			body = emptyBody(connection, keepAlive);
+		} else if (headers.containsToken("Transfer-Encoding", "chunked")) {
+			body = new ChunkedBodyStream(connection, keepAlive);
+		} else if (contentLength != null) {
+			long length;
+			try {
+				length = Long.parseLong(contentLength.trim());
+			} catch (NumberFormatException e) {
+				throw new IOException("Illegal content-length: " + contentLength);
+			}
+			body = length == 0 ? emptyBody(connection, keepAlive)
+					: new FixedLengthBodyStream(connection, keepAlive, length);
+		} else {
+			body = new UntilCloseBodyStream(connection);
+		}
+		HttpResponse response = new HttpResponse(code, message, headers, body);
+		HttpCompression compression = request.compression();
+		return compression == null ? response : compression.decode(response);
+	}
+
+	private static InputStream emptyBody(PooledConnection connection, boolean keepAlive) {
+		connection.release(keepAlive);
+		return new ByteArrayInputStream(new byte[0]);
+	}
+
+	private static void writeRequest(PooledConnection connection, HttpRequest request, URL url) throws IOException {
+		HttpMethod method = request.method();
+		String file = url.getFile();
+		StringBuilder head = new StringBuilder(256).append(method.name()).append(' ')
+				.append(file.isEmpty() ? "/" : file).append(" HTTP/1.1\r\n");
+		HttpHeaders headers = request.headers();
+		for (int i = 0; i < headers.size(); i++) {
+			String name = headers.name(i);
+			if ("Content-Length".equalsIgnoreCase(name)) {
+				continue;
+			}
+			head.append(name).append(": ").append(headers.value(i)).append("\r\n");
+		}
+		if (!headers.contains("Host")) {
+			head.append("Host: ").append(url.getHost());
+			if (url.getPort() >= 0 && url.getPort() != url.getDefaultPort()) {
+				head.append(':').append(url.getPort());
+			}
+			head.append("\r\n");
+		}
+		HttpCompression compression = request.compression();
+		if (compression != null && !headers.contains("Accept-Encoding")) {
+			head.append("Accept-Encoding: ").append(compression.acceptEncoding()).append("\r\n");
+		}
+		HttpBody body = method.permitBody() ? request.httpBody() : null;
+		if (body != null && compression != null && !headers.contains("Content-Encoding")) {
+			HttpBody compressed = compression.compress(body);
+			if (compressed != body) {
+				head.append("Content-Encoding: ").append(compression.requestEncoding()).append("\r\n");
+				body = compressed;
+			}
+		}
+		long contentLength = body == null ? 0 : body.contentLength();
+		if (method.permitBody()) {
+			if (contentLength < 0) {
+				head.append("Transfer-Encoding: chunked\r\n");
+			} else if (method.requiredBody() || contentLength > 0) {
+				head.append("Content-Length: ").append(contentLength).append("\r\n");
+			}
+			if (!headers.contains("Content-Type")) {
+				head.append("Content-Type: application/x-www-form-urlencoded\r\n");
+			}
+		}
+		head.append("\r\n");
+		OutputStream out = connection.out;
+		out.write(head.toString().getBytes(ISO_8859_1));
+		if (contentLength < 0) {
+			ChunkedOutputStream chunked = new ChunkedOutputStream(out);
+			body.writeTo(chunked);
+			chunked.finish();
+		} else if (contentLength > 0) {
+			// a layered SSLSocket still returns the raw channel, writing there would bypass TLS
+			SocketChannel channel = connection.socket instanceof SSLSocket ? null : connection.socket.getChannel();
+			if (channel != null) {
+				// plain connections write straight to the channel, files go through transferTo
+				out.flush();
+				body.writeTo(channel);
+			} else {
+				body.writeTo(out);
+			}
+		}
+		out.flush();
+	}
+
+	private static int parseCode(String statusLine) throws IOException {
+		int sp = statusLine.indexOf(' ');
+		if (!statusLine.startsWith("HTTP/") || sp < 0 || statusLine.length() < sp + 4) {
+			throw new IOException("Malformed status line: " + statusLine);
+		}
+		try {
+			return Integer.parseInt(statusLine.substring(sp + 1, sp + 4));
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed status line: " + statusLine);
+		}
+	}
+
+	private static String readHeaderLine(InputStream in) throws IOException {
+		String line = readLine(in);
+		if (line == null) {
+			throw new EOFException("Connection closed while reading headers");
+		}
+		return line;
+	}
+
+	// a line without its CRLF, null if the stream ends before any byte
+	static String readLine(InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder(64);
+		for (int b; (b = in.read()) != '\n';) {
+			if (b == -1) {
+				if (line.length() == 0) {
+					return null;
+				}
+				throw new EOFException("Unexpected end of stream");
+			}
+			if (line.length() == MAX_LINE_LENGTH) {
+				throw new IOException("Line exceeds " + MAX_LINE_LENGTH + " bytes");
+			}
+			line.append((char) b);
+		}
+		int length = line.length();
+		if (length > 0 && line.charAt(length - 1) == '\r') {
+			line.setLength(length - 1);
+		}
+		return line.toString();
+	}
+
+	public PoolStats stats() {
+		PoolStats stats = new PoolStats(0, 0, 0, 0, 0, 0, 0);
+		for (HostPool pool : pools.values()) {
+			stats = stats.plus(pool.stats());
+		}
+		return stats;
+	}
+
+	// keyed by scheme://host:port
+	public Map<String, PoolStats> hostStats() {
+		Map<String, PoolStats> stats = new LinkedHashMap<>();
+		pools.forEach((k, pool) -> stats.put(k, pool.stats()));
+		return Collections.unmodifiableMap(stats);
+	}
+
+	// closes the idle connections that have passed the idle timeout
+	public void evictExpired() {
+		pools.values().forEach(HostPool::evictExpired);
+	}
+
+	// leased connections are closed when they are released
+	@Override
+	public void close() {
+		closed = true;
+		pools.values().forEach(HostPool::closeIdle);
+	}
+
+	@Override
+	public String toString() {
+		return "PooledHttpClient[maxConnectionsPerHost=" + maxConnectionsPerHost + ", stats=" + stats() + "]";
+	}
+
+	private final class HostPool {
+
+		private final String host;
+		private final int port;
+		private final boolean https;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition available = lock.newCondition();
+		// most recently used last, guarded by lock
+		private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+		private int leased;
+		private int pending;
+		private final LongAdder created = new LongAdder();
+		private final LongAdder reused = new LongAdder();
+		private final LongAdder disposed = new LongAdder();
+
+		private HostPool(String host, int port, boolean https) {
+			this.host = host;
+			this.port = port;
+			this.https = https;
+		}
+
+		private PooledConnection acquire(HttpRequest request) throws IOException {
+			long deadline = System.nanoTime() + Math.min(acquireTimeoutNanos, request.remainingNanos());
+			for (;;) {
+				PooledConnection connection = null;
+				lock.lock();
+				try {
+					for (;;) {
+						if (closed) {
+							throw new IllegalStateException("PooledHttpClient is closed");
+						}
+						long now = System.nanoTime();
+						while ((connection = idle.pollLast()) != null && now - connection.lastUsed > idleTimeoutNanos) {
+							connection.closeSocket();
+							disposed.increment();
+						}
+						if (connection != null || leased < maxConnectionsPerHost) {
+							if (connection != null) {
+								connection.released = false;
+							}
+							leased++;
+							break;
+						}
+						long wait = deadline - now;
+						if (wait <= 0) {
+							throw new IOException("Timeout waiting for a connection to " + host + ":" + port);
+						}
+						pending++;
+						try {
+							available.awaitNanos(wait);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							throw new InterruptedIOException("Interrupted waiting for a connection");
+						} finally {
+							pending--;
+						}
+					}
+				} finally {
+					lock.unlock();
+				}
+				if (connection == null) {
+					return connect(request);
+				}
+				// validate outside the lock, it may block for a millisecond
+				if (System.nanoTime() - connection.lastUsed > validateAfterInactivityNanos && connection.isStale()) {
+					connection.release(false);
+					continue;
+				}
+				connection.reused = true;
+				connection.responseStarted = false;
+				reused.increment();
+				return connection;
+			}
+		}
+
+		private PooledConnection connect(HttpRequest request) throws IOException {
+			// backed by a channel, so file bodies can be sent with transferTo
+			Socket socket = SocketChannel.open().socket();
+			try {
+				socket.setTcpNoDelay(true);
+				socket.setKeepAlive(true);
+				socket.connect(new InetSocketAddress(host, port),
+						request.timeoutMillis(request.connectTimeoutMillis(), connectTimeoutMillis));
+				if (https) {
+					SSLSocket ssl = (SSLSocket) sslSocketFactory.createSocket(socket, host, port, true);
+					SSLParameters parameters = ssl.getSSLParameters();
+					parameters.setEndpointIdentificationAlgorithm("HTTPS");
+					ssl.setSSLParameters(parameters);
+					ssl.startHandshake();
+					socket = ssl;
+				}
+				socket.setSoTimeout(readTimeoutMillis);
+				created.increment();
+				return new PooledConnection(this, socket);
+			} catch (IOException | RuntimeException e) {
+				try {
+					socket.close();
+				} catch (IOException ignored) {
+				}
+				lock.lock();
+				try {
+					leased--;
+					available.signal();
+				} finally {
+					lock.unlock();
+				}
+				throw e;
+			}
+		}
+
+		private void release(PooledConnection connection, boolean reusable) {
+			lock.lock();
+			try {
+				leased--;
+				if (reusable && !closed) {
+					connection.lastUsed = System.nanoTime();
+					idle.addLast(connection);
+				} else {
+					connection.closeSocket();
+					disposed.increment();
+				}
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void evictExpired() {
+			lock.lock();
+			try {
+				long now = System.nanoTime();
+				for (PooledConnection connection; (connection = idle.peekFirst()) != null
+						&& now - connection.lastUsed > idleTimeoutNanos;) {
+					idle.pollFirst().closeSocket();
+					disposed.increment();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void closeIdle() {
+			lock.lock();
+			try {
+				for (PooledConnection connection; (connection = idle.pollFirst()) != null;) {
+					connection.closeSocket();
+					disposed.increment();
+				}
+				available.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private PoolStats stats() {
+			lock.lock();
+			try {
+				return new PoolStats(leased, idle.size(), pending, maxConnectionsPerHost, created.sum(), reused.sum(),
+						disposed.sum());
+			} finally {
+				lock.unlock();
+			}
+		}
+
+	}
+
+	private static final class PooledConnection {
+
+		private final HostPool pool;
+		private final Socket socket;
+		private final BufferedInputStream in;
+		private final BufferedOutputStream out;
+		private long lastUsed;
+		private boolean reused;
+		private boolean responseStarted;
+		private boolean released;
+
+		private PooledConnection(HostPool pool, Socket socket) throws IOException {
+			this.pool = pool;
+			this.socket = socket;
+			this.in = new BufferedInputStream(socket.getInputStream(), 8192);
+			this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+		}
+
+		// an idle connection is stale when the peer closed it or sent something unexpected
+		private boolean isStale() {
+			try {
+				if (in.available() > 0) {
+					return true;
+				}
+				int timeout = socket.getSoTimeout();
+				socket.setSoTimeout(1);
+				try {
+					in.read();
+					return true;
+				} finally {
+					socket.setSoTimeout(timeout);
+				}
+			} catch (SocketTimeoutException e) {
+				return false;
+			} catch (IOException e) {
+				return true;
+			}
+		}
+
+		private void release(boolean reusable) {
+			if (!released) {
+				released = true;
+				pool.release(this, reusable && !socket.isClosed());
+			}
+		}
+
+		private void closeSocket() {
+			try {
+				socket.close();
+			} catch (IOException ignored) {
+			}
+		}
+
+	}
+
+	private static final class ChunkedOutputStream extends OutputStream {
+
+		private final OutputStream out;
+
+		private ChunkedOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len > 0) {
+				out.write((Integer.toHexString(len) + "\r\n").getBytes(ISO_8859_1));
+				out.write(b, off, len);
+				out.write('\r');
+				out.write('\n');
+			}
+		}
+
+		private void finish() throws IOException {
+			out.write('0');
+			out.write(CRLF_CRLF);
+		}
+
+	}
+
+	private static abstract class BodyStream extends InputStream {
+
+		final PooledConnection connection;
+		final InputStream in;
+		final boolean keepAlive;
+		private boolean done;
+
+		BodyStream(PooledConnection connection, boolean keepAlive) {
+			this.connection = connection;
+			this.in = connection.in;
+			this.keepAlive = keepAlive;
+		}
+
+		// -1 at the end of the body
+		abstract int read0(byte[] b, int off, int len) throws IOException;
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			int n = read(one, 0, 1);
+			return n < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (done) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			try {
+				int n = read0(b, off, len);
+				if (n < 0) {
+					finish(keepAlive);
+				}
+				return n;
+			} catch (IOException e) {
+				finish(false);
+				throw e;
+			}
+		}
+
+		private void finish(boolean reusable) {
+			if (!done) {
+				done = true;
+				connection.release(reusable);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (done) {
+				return;
+			}
+			if (keepAlive) {
+				byte[] buffer = new byte[4096];
+				try {
+					for (int drained = 0; drained < MAX_DRAIN;) {
+						int n = read0(buffer, 0, buffer.length);
+						if (n < 0) {
+							finish(true);
+							return;
+						}
+						drained += n;
+					}
+				} catch (IOException e) {
+					// fall through and close the connection
+				}
+			}
+			finish(false);
+		}
+
+	}
+
+	private static final class FixedLengthBodyStream extends BodyStream {
+
+		private long remaining;
+
+		private FixedLengthBodyStream(PooledConnection connection, boolean keepAlive, long length) {
+			super(connection, keepAlive);
+			this.remaining = length;
+		}
+
+		@Override
+		int read0(byte[] b, int off, int len) throws IOException {
+			if (remaining == 0) {
+				return -1;
+			}
+			int n = in.read(b, off, (int) Math.min(len, remaining));
+			if (n < 0) {
+				throw new EOFException("Connection closed with " + remaining + " bytes of body left");
+			}
+			remaining -= n;
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(in.available(), remaining);
+		}
+
+	}
+
+	private static final class ChunkedBodyStream extends BodyStream {
+
+		private long chunkRemaining;
+		private boolean firstChunk = true;
+		private boolean eof;
+
+		private ChunkedBodyStream(PooledConnection connection, boolean keepAlive) {
+			super(connection, keepAlive);
+		}
+
+		@Override
+		int read0(byte[] b, int off, int len) throws IOException {
+			if (eof) {
+				return -1;
+			}
+			if (chunkRemaining == 0) {
+				if (!firstChunk && !readRequiredLine().isEmpty()) {
+					throw new IOException("Missing CRLF after chunk");
+				}
+				firstChunk = false;
+				String line = readRequiredLine();
+				int semicolon = line.indexOf(';');
+				try {
+					chunkRemaining = Long.parseLong((semicolon < 0 ? line : line.substring(0, semicolon)).trim(), 16);
+				} catch (NumberFormatException e) {
+					throw new IOException("Illegal chunk size: " + line);
+				}
+				if (chunkRemaining == 0) {
+					// skip the trailers
+					while (!readRequiredLine().isEmpty()) {
+					}
+					eof = true;
+					return -1;
+				}
+			}
+			int n = in.read(b, off, (int) Math.min(len, chunkRemaining));
+			if (n < 0) {
+				throw new EOFException("Connection closed inside a chunk");
+			}
+			chunkRemaining -= n;
+			return n;
+		}
+
+		private String readRequiredLine() throws IOException {
+			String line = readLine(in);
+			if (line == null) {
+				throw new EOFException("Connection closed inside a chunked body");
+			}
+			return line;
+		}
+
+	}
+
+	private static final class UntilCloseBodyStream extends BodyStream {
+
+		private UntilCloseBodyStream(PooledConnection connection) {
+			super(connection, false);
+		}
+
+		@Override
+		int read0(byte[] b, int off, int len) throws IOException {
+			return in.read(b, off, len);
+		}
+
+	}
+
+	public static final class Builder {
+
+		public static final Builder newInstance() {
+			return new Builder();
+		}
+
+		private int maxConnectionsPerHost = 8;
+		private long idleTimeoutNanos = TimeUnit.SECONDS.toNanos(60);
+		private long validateAfterInactivityNanos = TimeUnit.SECONDS.toNanos(2);
+		private long acquireTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+		private long connectTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+		private long readTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+		private SSLSocketFactory sslSocketFactory;
+
+		private Builder() {
+		}
+
+		public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+			this.maxConnectionsPerHost = maxConnectionsPerHost;
+			return this;
+		}
+
+		public Builder idleTimeout(long time, TimeUnit unit) {
+			this.idleTimeoutNanos = unit.toNanos(time);
+			return this;
+		}
+
+		// idle connections older than this are checked before reuse
+		public Builder validateAfterInactivity(long time, TimeUnit unit) {
+			this.validateAfterInactivityNanos = unit.toNanos(time);
+			return this;
+		}
+
+		// how long execute waits for a connection when the host is at its maximum
+		public Builder acquireTimeout(long time, TimeUnit unit) {
+			this.acquireTimeoutNanos = unit.toNanos(time);
+			return this;
+		}
+
+		public Builder connectTimeout(long time, TimeUnit unit) {
+			this.connectTimeoutNanos = unit.toNanos(time);
+			return this;
+		}
+
+		public Builder readTimeout(long time, TimeUnit unit) {
+			this.readTimeoutNanos = unit.toNanos(time);
+			return this;
+		}
+
+		public Builder sslSocketFactory(SSLSocketFactory sslSocketFactory) {
+			this.sslSocketFactory = sslSocketFactory;
+			return this;
+		}
+
+		public PooledHttpClient build() {
+			if (maxConnectionsPerHost <= 0) {
+				throw new IllegalArgumentException("Illegal max connections per host: " + maxConnectionsPerHost);
+			}
+			if (idleTimeoutNanos < 0 || validateAfterInactivityNanos < 0 || acquireTimeoutNanos < 0
+					|| connectTimeoutNanos < 0 || readTimeoutNanos < 0) {
+				throw new IllegalArgumentException("Timeouts must not be negative");
+			}
+			return new PooledHttpClient(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,257 @@
+package me.simplecoding.utils.net;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parsed query string that only records where each {@code name=value} pair starts and ends. Names and values are
+ * decoded the first time they are accessed and cached afterwards.
+ */
+public final class QueryString {
+
+	public static final QueryString parse(String query) {
+		return parse(query, DefaultURLDecoderHolder.defaultDecoder);
+	}
+
+	public static final QueryString parse(String query, URLDecoder decoder) {
+		int begin = query.startsWith("?") ? 1 : 0;
+		return new QueryString(query, begin, query.length(), decoder);
+	}
+
+	// the part between '?' and '#' of an URL, empty if there is none
+	public static final QueryString fromUrl(String url) {
+		return fromUrl(url, DefaultURLDecoderHolder.defaultDecoder);
+	}
+
+	public static final QueryString fromUrl(String url, URLDecoder decoder) {
+		int end = url.indexOf('#');
+		if (end < 0) {
+			end = url.length();
+		}
+		// the first '?' starts the query, later ones belong to it
+		int q = url.indexOf('?');
+		int begin = q < 0 || q >= end ? end : q + 1;
+		return new QueryString(url, begin, end, decoder);
+	}
+
+	private final String source;
+	private final int begin;
+	private final int end;
+	private final URLDecoder decoder;
+	// nameStart, nameEnd, valueEnd for each pair, the value starts after the '=' at nameEnd if any
+	private final int[] bounds;
+	private final int size;
+	private final String[] names;
+	private final String[] values;
+	private Map<String, List<String>> map;
+
+	private QueryString(String source, int begin, int end, URLDecoder decoder) {
+		this.source = source;
+		this.begin = begin;
+		this.end = end;
+		this.decoder = decoder;
+		int[] bounds = new int[12];
+		int n = 0;
+		int nameStart = begin;
+		int nameEnd = -1;
+		for (int i = begin; i <= end; i++) {
+			char c = i == end ? '&' : source.charAt(i);
+			if (c == '=' && nameEnd < 0) {
+				nameEnd = i;
+			} else if (c == '&') {
+				if (i > nameStart) {
+					if (n + 3 > bounds.length) {
+						bounds = Arrays.copyOf(bounds, bounds.length * 2);
+					}
+					bounds[n++] = nameStart;
+					bounds[n++] = nameEnd < 0 ? i : nameEnd;
+					bounds[n++] = i;
+				}
+				nameStart = i + 1;
+				nameEnd = -1;
+			}
+		}
+		this.bounds = bounds;
+		this.size = n / 3;
+		this.names = new String[size];
+		this.values = new String[size];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public String name(int index) {
+		checkIndex(index);
+		String name = names[index];
+		if (name == null) {
+			names[index] = name = decode(bounds[index * 3], bounds[index * 3 + 1]);
+		}
+		return name;
+	}
+
+	public String value(int index) {
+		checkIndex(index);
+		String value = values[index];
+		if (value == null) {
+			int nameEnd = bounds[index * 3 + 1];
+			int valueEnd = bounds[index * 3 + 2];
+			values[index] = value = nameEnd == valueEnd ? "" : decode(nameEnd + 1, valueEnd);
+		}
+		return value;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private String decode(int from, int to) {
+		return decoder.decode(source.substring(from, to));
+	}
+
+	private boolean nameEquals(int index, String name) {
+		int from = bounds[index * 3];
+		int to = bounds[index * 3 + 1];
+		if (names[index] == null) {
+			// names without escapes are compared in place
+			boolean plain = true;
+			for (int i = from; i < to && plain; i++) {
+				char c = source.charAt(i);
+				plain = c != '%' && c != '+';
+			}
+			if (plain) {
+				return to - from == name.length() && source.regionMatches(from, name, 0, name.length());
+			}
+		}
+		return name(index).equals(name);
+	}
+
+	public int indexOf(String name) {
+		for (int i = 0; i < size; i++) {
+			if (nameEquals(i, name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contains(String name) {
+		return indexOf(name) >= 0;
+	}
+
+	// the first value of the name, null if absent
+	public String get(String name) {
+		int index = indexOf(name);
+		return index < 0 ? null : value(index);
+	}
+
+	public List<String> getAll(String name) {
+		List<String> all = null;
+		for (int i = 0; i < size; i++) {
+			if (nameEquals(i, name)) {
+				if (all == null) {
+					all = new ArrayList<>(2);
+				}
+				all.add(value(i));
+			}
+		}
+		return all == null ? Collections.emptyList() : Collections.unmodifiableList(all);
+	}
+
+	public Set<String> names() {
+		Set<String> names = new LinkedHashSet<>();
+		for (int i = 0; i < size; i++) {
+			names.add(name(i));
+		}
+		return Collections.unmodifiableSet(names);
+	}
+
+	// an unmodifiable multi-map view, lookups decode only what they need
+	public Map<String, List<String>> asMap() {
+		Map<String, List<String>> map = this.map;
+		if (map == null) {
+			this.map = map = new MultiMapView();
+		}
+		return map;
+	}
+
+	public HttpRequest populate(HttpRequest request) {
+		for (int i = 0; i < size; i++) {
+			request.addQuery(name(i), value(i));
+		}
+		return request;
+	}
+
+	@Override
+	public String toString() {
+		return source.substring(begin, end);
+	}
+
+	private final class MultiMapView extends AbstractMap<String, List<String>> {
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key instanceof String && contains((String) key);
+		}
+
+		@Override
+		public List<String> get(Object key) {
+			if (!(key instanceof String)) {
+				return null;
+			}
+			List<String> values = getAll((String) key);
+			return values.isEmpty() ? null : values;
+		}
+
+		@Override
+		public Set<Entry<String, List<String>>> entrySet() {
+			return new AbstractSet<Entry<String, List<String>>>() {
+
+				@Override
+				public Iterator<Entry<String, List<String>>> iterator() {
+					Iterator<String> it = names().iterator();
+					return new Iterator<Entry<String, List<String>>>() {
+
+						@Override
+						public boolean hasNext() {
+							return it.hasNext();
+						}
+
+						@Override
+						public Entry<String, List<String>> next() {
+							String name = it.next();
+							return new SimpleImmutableEntry<>(name, getAll(name));
+						}
+
+					};
+				}
+
+				@Override
+				public int size() {
+					return names().size();
+				}
+
+			};
+		}
+
+	}
+
+	private static final class DefaultURLDecoderHolder {
+		private static final URLDecoder defaultDecoder = URLDecoderBuilder.newInstance().build();
+	}
+
+}
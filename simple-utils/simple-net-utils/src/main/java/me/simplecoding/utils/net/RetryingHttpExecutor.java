@@ -0,0 +1,372 @@
+package me.simplecoding.utils.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries failed exchanges of idempotent requests with exponential backoff and jitter, and optionally hedges them.
+ * <p>
+ * A request is retried after an {@link IOException} or a retryable status code, at most {@code maxAttempts} times and
+ * never past the deadline of the request. A {@code Retry-After} in seconds lengthens the backoff. With hedging, a
+ * second attempt is sent when the first has not answered after the p95 latency of earlier attempts, and whichever
+ * response comes first is returned, the other one is closed.
+ */
+public class RetryingHttpExecutor implements HttpExecutor, AutoCloseable {
+
+	private final HttpExecutor delegate;
+	private final int maxAttempts;
+	private final long initialBackoffNanos;
+	private final long maxBackoffNanos;
+	private final double multiplier;
+	private final double jitter;
+	private final int[] retryStatusCodes;
+	private final boolean hedging;
+	private final long minHedgeDelayNanos;
+	private final int minHedgeSamples;
+	private final ExecutorService hedgeExecutor;
+	private final boolean ownHedgeExecutor;
+	private final LatencyTracker latencies;
+
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+
+	private RetryingHttpExecutor(Builder builder) {
+		this.delegate = builder.delegate;
+		this.maxAttempts = builder.maxAttempts;
+		this.initialBackoffNanos = builder.initialBackoffNanos;
+		this.maxBackoffNanos = builder.maxBackoffNanos;
+		this.multiplier = builder.multiplier;
+		this.jitter = builder.jitter;
+		this.retryStatusCodes = builder.retryStatusCodes.clone();
+		Arrays.sort(retryStatusCodes);
+		this.hedging = builder.hedging;
+		this.minHedgeDelayNanos = builder.minHedgeDelayNanos;
+		this.minHedgeSamples = builder.minHedgeSamples;
+		if (hedging && builder.hedgeExecutor == null) {
+			AtomicInteger threads = new AtomicInteger();
+			this.hedgeExecutor = Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "http-hedge-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.ownHedgeExecutor = true;
+		} else {
+			this.hedgeExecutor = builder.hedgeExecutor;
+			this.ownHedgeExecutor = false;
+		}
+		this.latencies = new LatencyTracker(builder.latencyWindow, 0.95);
+	}
+
+	@Override
+	public HttpResponse execute(HttpRequest request) throws IOException {
+		boolean idempotent = request.method().idempotent();
+		for (int attempt = 1;; attempt++) {
+			HttpResponse response;
+			try {
+				response = hedging && idempotent ? executeHedged(request) : executeTimed(request);
+			} catch (IOException e) {
+				if (!idempotent || attempt >= maxAttempts || e instanceof InterruptedIOException
+						&& Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				long backoff = backoffNanos(attempt, null);
+				if (backoff >= request.remainingNanos()) {
+					throw e;
+				}
+				sleep(backoff);
+				retries.increment();
+				continue;
+			}
+			if (!idempotent || attempt >= maxAttempts || Arrays.binarySearch(retryStatusCodes, response.code()) < 0) {
+				return response;
+			}
+			long backoff = backoffNanos(attempt, response);
+			if (backoff >= request.remainingNanos()) {
+				return response;
+			}
+			response.close();
+			sleep(backoff);
+			retries.increment();
+		}
+	}
+
+	private HttpResponse executeTimed(HttpRequest request) throws IOException {
+		long start = System.nanoTime();
+		HttpResponse response = delegate.execute(request);
+		latencies.record(System.nanoTime() - start);
+		return response;
+	}
+
+	private HttpResponse executeHedged(HttpRequest request) throws IOException {
+		long p95 = latencies.valueNanos();
+		if (p95 < 0 || latencies.count() < minHedgeSamples) {
+			return executeTimed(request);
+		}
+		long delay = Math.max(p95, minHedgeDelayNanos);
+		CompletableFuture<HttpResponse> winner = new CompletableFuture<>();
+		AtomicInteger launched = new AtomicInteger();
+		AtomicInteger failures = new AtomicInteger();
+		submit(request, winner, launched, failures);
+		try {
+			long remaining = request.remainingNanos();
+			if (delay >= remaining) {
+				return await(winner, remaining);
+			}
+			return winner.get(delay, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			// no answer yet, send the hedge
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		} catch (InterruptedException e) {
+			winner.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for the response");
+		}
+		hedges.increment();
+		CompletableFuture<HttpResponse> hedge = submit(request, winner, launched, failures);
+		HttpResponse response = await(winner, request.remainingNanos());
+		if (!hedge.isCompletedExceptionally() && hedge.getNow(null) == response) {
+			hedgeWins.increment();
+		}
+		return response;
+	}
+
+	// completes the winner with the first response and closes any later one, fails it once all attempts failed
+	private CompletableFuture<HttpResponse> submit(HttpRequest request, CompletableFuture<HttpResponse> winner,
+			AtomicInteger launched, AtomicInteger failures) {
+		launched.incrementAndGet();
+		CompletableFuture<HttpResponse> attempt = CompletableFuture.supplyAsync(() -> {
+			try {
+				return executeTimed(request);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, hedgeExecutor);
+		attempt.whenComplete((response, cause) -> {
+			if (cause != null) {
+				if (failures.incrementAndGet() >= launched.get()) {
+					winner.completeExceptionally(cause);
+				}
+			} else if (!winner.complete(response)) {
+				closeQuietly(response);
+			}
+		});
+		return attempt;
+	}
+
+	private HttpResponse await(CompletableFuture<HttpResponse> winner, long timeoutNanos) throws IOException {
+		try {
+			return timeoutNanos == Long.MAX_VALUE ? winner.get() : winner.get(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			// a response arriving later is closed
+			if (!winner.completeExceptionally(e)) {
+				return await(winner, Long.MAX_VALUE);
+			}
+			throw new SocketTimeoutException("Deadline exceeded");
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		} catch (InterruptedException e) {
+			winner.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for the response");
+		}
+	}
+
+	private static IOException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		while (cause instanceof CompletionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof UncheckedIOException) {
+			return ((UncheckedIOException) cause).getCause();
+		}
+		if (cause instanceof IOException) {
+			return (IOException) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new IOException(cause);
+	}
+
+	private static void closeQuietly(HttpResponse response) {
+		try {
+			response.close();
+		} catch (IOException ignored) {
+		}
+	}
+
+	// exponential with jitter taking off up to that fraction, at least Retry-After
+	private long backoffNanos(int attempt, HttpResponse response) {
+		double backoff = Math.min(initialBackoffNanos * Math.pow(multiplier, attempt - 1), maxBackoffNanos);
+		backoff -= backoff * jitter * ThreadLocalRandom.current().nextDouble();
+		long nanos = (long) backoff;
+		String retryAfter = response == null ? null : response.header("Retry-After");
+		if (retryAfter != null) {
+			try {
+				nanos = Math.max(nanos, TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim())));
+			} catch (NumberFormatException e) {
+				// an HTTP date, ignored
+			}
+		}
+		return nanos;
+	}
+
+	private static void sleep(long nanos) throws InterruptedIOException {
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting to retry");
+		}
+	}
+
+	public long retryCount() {
+		return retries.sum();
+	}
+
+	public long hedgeCount() {
+		return hedges.sum();
+	}
+
+	// hedges that answered before the attempt they backed up
+	public long hedgeWinCount() {
+		return hedgeWins.sum();
+	}
+
+	// the p95 latency of single attempts, -1 until enough were seen
+	public long p95LatencyNanos() {
+		return latencies.valueNanos();
+	}
+
+	// shuts down the hedge threads this executor created, the delegate is left open
+	@Override
+	public void close() {
+		if (ownHedgeExecutor) {
+			hedgeExecutor.shutdown();
+		}
+	}
+
+	public static final class Builder {
+
+		public static final Builder newInstance(HttpExecutor delegate) {
+			return new Builder(delegate);
+		}
+
+		private final HttpExecutor delegate;
+		private int maxAttempts = 3;
+		private long initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(100);
+		private long maxBackoffNanos = TimeUnit.SECONDS.toNanos(5);
+		private double multiplier = 2.0;
+		private double jitter = 0.5;
+		private int[] retryStatusCodes = { 502, 503, 504 };
+		private boolean hedging;
+		private long minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+		private int minHedgeSamples = 20;
+		private int latencyWindow = 1024;
+		private ExecutorService hedgeExecutor;
+
+		private Builder(HttpExecutor delegate) {
+			if (delegate == null) {
+				throw new IllegalArgumentException("Delegate executor is null");
+			}
+			this.delegate = delegate;
+		}
+
+		// including the first one
+		public Builder maxAttempts(int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		public Builder initialBackoff(long time, TimeUnit unit) {
+			this.initialBackoffNanos = unit.toNanos(time);
+			return this;
+		}
+
+		public Builder maxBackoff(long time, TimeUnit unit) {
+			this.maxBackoffNanos = unit.toNanos(time);
+			return this;
+		}
+
+		public Builder multiplier(double multiplier) {
+			this.multiplier = multiplier;
+			return this;
+		}
+
+		// the part of each backoff that is random, between 0 and 1
+		public Builder jitter(double jitter) {
+			this.jitter = jitter;
+			return this;
+		}
+
+		public Builder retryStatusCodes(int... retryStatusCodes) {
+			this.retryStatusCodes = retryStatusCodes;
+			return this;
+		}
+
+		public Builder hedging(boolean hedging) {
+			this.hedging = hedging;
+			return this;
+		}
+
+		// hedges are never sent sooner than this, whatever the p95
+		public Builder minHedgeDelay(long time, TimeUnit unit) {
+			this.minHedgeDelayNanos = unit.toNanos(time);
+			return this;
+		}
+
+		// attempts to see before hedging
+		public Builder minHedgeSamples(int minHedgeSamples) {
+			this.minHedgeSamples = minHedgeSamples;
+			return this;
+		}
+
+		// the number of latest attempts the p95 is taken from
+		public Builder latencyWindow(int latencyWindow) {
+			this.latencyWindow = latencyWindow;
+			return this;
+		}
+
+		// runs hedged attempts, a cached pool of daemon threads by default
+		public Builder hedgeExecutor(ExecutorService hedgeExecutor) {
+			this.hedgeExecutor = hedgeExecutor;
+			return this;
+		}
+
+		public RetryingHttpExecutor build() {
+			if (maxAttempts <= 0) {
+				throw new IllegalArgumentException("Illegal max attempts: " + maxAttempts);
+			}
+			if (initialBackoffNanos < 0 || maxBackoffNanos < initialBackoffNanos || minHedgeDelayNanos < 0) {
+				throw new IllegalArgumentException("Illegal backoff or hedge delay");
+			}
+			if (multiplier < 1.0 || jitter < 0.0 || jitter > 1.0) {
+				throw new IllegalArgumentException("Illegal multiplier or jitter: " + multiplier + ", " + jitter);
+			}
+			if (latencyWindow <= 0 || minHedgeSamples < 0) {
+				throw new IllegalArgumentException("Illegal latency window or min hedge samples");
+			}
+			return new RetryingHttpExecutor(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,23 @@
+package me.simplecoding.utils.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+
+/**
+ * Decodes percent-encoded bytes without going through a charset.
+ * <p>
+ * {@link #decode(ByteBuffer, ByteBuffer, boolean)} follows the {@link java.nio.charset.CharsetDecoder} contract. An
+ * escape split across chunks is left in {@code src} and {@link CoderResult#UNDERFLOW} returned, the caller compacts
+ * and refills {@code src}; only when {@code endOfInput} is true is it reported as an incomplete escape.
+ */
+public interface URLByteDecoder {
+
+	CoderResult decode(ByteBuffer src, ByteBuffer dst, boolean endOfInput);
+
+	byte[] decode(byte[] src, int off, int len);
+
+	default byte[] decode(byte[] src) {
+		return decode(src, 0, src.length);
+	}
+
+}
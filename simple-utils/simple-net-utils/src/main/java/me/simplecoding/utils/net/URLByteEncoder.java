@@ -0,0 +1,26 @@
+package me.simplecoding.utils.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+
+/**
+ * Percent-encodes bytes that are already in the target charset.
+ * <p>
+ * {@link #encode(ByteBuffer, ByteBuffer)} follows the {@link java.nio.charset.CharsetEncoder} contract: it returns
+ * {@link CoderResult#OVERFLOW} when {@code dst} is full and {@link CoderResult#UNDERFLOW} once {@code src} is
+ * consumed, advancing both positions, so large payloads can be encoded chunk by chunk.
+ */
+public interface URLByteEncoder {
+
+	CoderResult encode(ByteBuffer src, ByteBuffer dst);
+
+	byte[] encode(byte[] src, int off, int len);
+
+	default byte[] encode(byte[] src) {
+		return encode(src, 0, src.length);
+	}
+
+	// the number of bytes the range encodes to
+	int encodedLength(byte[] src, int off, int len);
+
+}
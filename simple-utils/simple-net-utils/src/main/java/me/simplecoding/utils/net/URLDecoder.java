@@ -4,4 +4,8 @@ public interface URLDecoder {
 
 	String decode(String s);
 
+	default StringBuilder decodeTo(CharSequence s, StringBuilder out) {
+		return out.append(decode(s.toString()));
+	}
+
 }
@@ -1,9 +1,64 @@
 package me.simplecoding.utils.net;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.util.Arrays;
 
 public class URLDecoderBuilder {
 
+	// value of each hex digit, -1 for any other byte
+	static final byte[] HEX_VALUES = new byte[128];
+	static {
+		Arrays.fill(HEX_VALUES, (byte) -1);
+		for (int i = 0; i < 10; i++) {
+			HEX_VALUES['0' + i] = (byte) i;
+		}
+		for (int i = 0; i < 6; i++) {
+			HEX_VALUES['a' + i] = (byte) (10 + i);
+			HEX_VALUES['A' + i] = (byte) (10 + i);
+		}
+	}
+
+	static int hexValue(int c) {
+		return c >= 0 && c < 128 ? HEX_VALUES[c] : -1;
+	}
+
+	// the byte of an escape as Integer.parseInt(hex, 16) reads it, signs included so %+4 and %-0 still decode, or -1
+	static int escapeValue(int c1, int c2) {
+		int hi = hexValue(c1);
+		int lo = hexValue(c2);
+		if ((hi | lo) >= 0) {
+			return (hi << 4) | lo;
+		}
+		if (lo < 0) {
+			return -1;
+		}
+		if (c1 == '+') {
+			return lo;
+		}
+		return c1 == '-' && lo == 0 ? 0 : -1;
+	}
+
+	// same messages as the Integer.parseInt based decoding
+	static IllegalArgumentException illegalHex(String hex) {
+		try {
+			if (Integer.parseInt(hex, 16) < 0) {
+				return new IllegalArgumentException(
+						"URLDecoder: Illegal hex characters in escape (%) pattern - negative value");
+			}
+		} catch (NumberFormatException e) {
+			return new IllegalArgumentException(
+					"URLDecoder: Illegal hex characters in escape (%) pattern - " + e.getMessage());
+		}
+		return new IllegalArgumentException(
+				"URLDecoder: Illegal hex characters in escape (%) pattern - For input string: \"" + hex + "\"");
+	}
+
+	static IllegalArgumentException incompleteTrailingEscape() {
+		return new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+	}
+
 	public static final URLDecoderBuilder newInstance() {
 		return new URLDecoderBuilder();
 	}
@@ -19,66 +74,197 @@ public class URLDecoderBuilder {
 		return new URLDecoderImpl(charset);
 	}
 
+	// the charset is not used, the decoded bytes are returned as they are
+	public URLByteDecoder buildByteDecoder() {
+		return URLByteDecoderImpl.INSTANCE;
+	}
+
 	private static final class URLDecoderImpl implements URLDecoder {
 
+		private static final char REPLACEMENT = '\uFFFD';
+
 		private final Charset charset;
+		private final boolean utf8;
 
 		private URLDecoderImpl(Charset charset) {
 			this.charset = charset;
+			this.utf8 = URLEncoderBuilder.UTF_8.equals(charset);
 		}
 
 		@Override
 		public String decode(String s) {
-			boolean needToChange = false;
 			int numChars = s.length();
-			StringBuilder sb = new StringBuilder(numChars > 500 ? numChars / 2 : numChars);
-			int i = 0;
-			char c;
-			byte[] bytes = null;
+			for (int i = 0; i < numChars; i++) {
+				char c = s.charAt(i);
+				if (c == '%' || c == '+') {
+					StringBuilder sb = new StringBuilder(numChars).append(s, 0, i);
+					return decodeFrom(s, i, sb).toString();
+				}
+			}
+			return s;
+		}
+
+		@Override
+		public StringBuilder decodeTo(CharSequence s, StringBuilder out) {
+			return decodeFrom(s, 0, out);
+		}
+
+		private StringBuilder decodeFrom(CharSequence s, int i, StringBuilder sb) {
+			int numChars = s.length();
+			int copyStart = i;
 			while (i < numChars) {
-				c = s.charAt(i);
-				switch (c) {
-				case '+':
+				char c = s.charAt(i);
+				if (c != '%' && c != '+') {
+					i++;
+					continue;
+				}
+				if (copyStart < i) {
+					sb.append(s, copyStart, i);
+				}
+				if (c == '+') {
 					sb.append(' ');
 					i++;
-					needToChange = true;
-					break;
-				case '%':
-					try {
-						// (numChars-i)/3 is an upper bound for the number
-						// of remaining bytes
-						if (bytes == null)
-							bytes = new byte[(numChars - i) / 3];
-						int pos = 0;
-
-						while (((i + 2) < numChars) && (c == '%')) {
-							int v = Integer.parseInt(s.substring(i + 1, i + 3), 16);
-							if (v < 0)
-								throw new IllegalArgumentException(
-										"URLDecoder: Illegal hex characters in escape (%) pattern - negative value");
-							bytes[pos++] = (byte) v;
-							i += 3;
-							if (i < numChars)
-								c = s.charAt(i);
+				} else {
+					// validate the whole run of escapes first, the bytes are decoded after
+					int end = i;
+					int count = 0;
+					while (end + 2 < numChars && s.charAt(end) == '%') {
+						if (escapeValue(s.charAt(end + 1), s.charAt(end + 2)) < 0) {
+							throw illegalHex(s.subSequence(end + 1, end + 3).toString());
 						}
-						// A trailing, incomplete byte encoding such as
-						// "%x" will cause an exception to be thrown
-						if ((i < numChars) && (c == '%'))
-							throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
-						sb.append(new String(bytes, 0, pos, charset));
-					} catch (NumberFormatException e) {
-						throw new IllegalArgumentException(
-								"URLDecoder: Illegal hex characters in escape (%) pattern - " + e.getMessage());
+						end += 3;
+						count++;
 					}
-					needToChange = true;
-					break;
-				default:
-					sb.append(c);
-					i++;
-					break;
+					if (end < numChars && s.charAt(end) == '%') {
+						throw incompleteTrailingEscape();
+					}
+					if (utf8) {
+						decodeUtf8(s, i, count, sb);
+					} else {
+						byte[] bytes = new byte[count];
+						for (int k = 0; k < count; k++) {
+							bytes[k] = byteAt(s, i, k);
+						}
+						sb.append(new String(bytes, charset));
+					}
+					i = end;
+				}
+				copyStart = i;
+			}
+			if (copyStart < numChars) {
+				sb.append(s, copyStart, numChars);
+			}
+			return sb;
+		}
+
+		// the k-th byte of the escape run starting at offset
+		private static byte byteAt(CharSequence s, int offset, int k) {
+			int p = offset + k * 3;
+			return (byte) escapeValue(s.charAt(p + 1), s.charAt(p + 2));
+		}
+
+		// malformed input is replaced by U+FFFD the same way new String(bytes, UTF_8) does
+		private static void decodeUtf8(CharSequence s, int offset, int count, StringBuilder sb) {
+			int k = 0;
+			while (k < count) {
+				int b1 = byteAt(s, offset, k) & 0xFF;
+				if (b1 < 0x80) {
+					sb.append((char) b1);
+					k++;
+					continue;
+				}
+				int n;
+				int min = 0x80;
+				int max = 0xBF;
+				if (b1 >= 0xC2 && b1 <= 0xDF) {
+					n = 2;
+				} else if (b1 >= 0xE0 && b1 <= 0xEF) {
+					n = 3;
+					if (b1 == 0xE0) {
+						min = 0xA0;
+					}
+				} else if (b1 >= 0xF0 && b1 <= 0xF4) {
+					n = 4;
+					if (b1 == 0xF0) {
+						min = 0x90;
+					} else if (b1 == 0xF4) {
+						max = 0x8F;
+					}
+				} else {
+					sb.append(REPLACEMENT);
+					k++;
+					continue;
+				}
+				int cp = b1 & (0xFF >> (n + 1));
+				int j = 1;
+				for (; j < n && k + j < count; j++) {
+					int b = byteAt(s, offset, k + j) & 0xFF;
+					if (b < min || b > max) {
+						break;
+					}
+					cp = (cp << 6) | (b & 0x3F);
+					min = 0x80;
+					max = 0xBF;
+				}
+				if (j < n || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+					sb.append(REPLACEMENT);
+				} else {
+					sb.appendCodePoint(cp);
 				}
+				k += j;
 			}
-			return needToChange ? sb.toString() : s;
+		}
+
+	}
+
+	private static final class URLByteDecoderImpl implements URLByteDecoder {
+
+		private static final URLByteDecoderImpl INSTANCE = new URLByteDecoderImpl();
+
+		@Override
+		public CoderResult decode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+			int sp = src.position();
+			int sl = src.limit();
+			int dp = dst.position();
+			int dl = dst.limit();
+			try {
+				while (sp < sl) {
+					if (dp == dl) {
+						return CoderResult.OVERFLOW;
+					}
+					byte b = src.get(sp);
+					if (b == '%') {
+						if (sl - sp < 3) {
+							if (endOfInput) {
+								throw incompleteTrailingEscape();
+							}
+							// wait for the rest of the escape
+							return CoderResult.UNDERFLOW;
+						}
+						int v = escapeValue(src.get(sp + 1), src.get(sp + 2));
+						if (v < 0) {
+							throw illegalHex(new String(new char[] { (char) (src.get(sp + 1) & 0xFF),
+									(char) (src.get(sp + 2) & 0xFF) }));
+						}
+						dst.put(dp++, (byte) v);
+						sp += 3;
+					} else {
+						dst.put(dp++, b == '+' ? (byte) ' ' : b);
+						sp++;
+					}
+				}
+				return CoderResult.UNDERFLOW;
+			} finally {
+				src.position(sp);
+				dst.position(dp);
+			}
+		}
+
+		@Override
+		public byte[] decode(byte[] src, int off, int len) {
+			ByteBuffer dst = ByteBuffer.allocate(len);
+			decode(ByteBuffer.wrap(src, off, len), dst, true);
+			return dst.position() == len ? dst.array() : Arrays.copyOf(dst.array(), dst.position());
 		}
 
 	}
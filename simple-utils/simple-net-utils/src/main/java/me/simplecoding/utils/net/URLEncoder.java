@@ -1,7 +1,18 @@
 package me.simplecoding.utils.net;
 
+import java.io.IOException;
+
 public interface URLEncoder {
 
 	String encode(String s);
 
+	default StringBuilder encodeTo(CharSequence s, StringBuilder out) {
+		return out.append(encode(s.toString()));
+	}
+
+	default <A extends Appendable> A encodeTo(CharSequence s, A out) throws IOException {
+		out.append(encode(s.toString()));
+		return out;
+	}
+
 }
@@ -1,14 +1,18 @@
 package me.simplecoding.utils.net;
 
-import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
 import java.util.BitSet;
 
 public class URLEncoderBuilder {
 
 	static final Charset UTF_8 = Charset.forName("UTF-8");
 
-	static final int caseDiff = ('a' - 'A');
+	static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
 	static BitSet dontNeedEncoding;
 	static {
 
@@ -46,6 +50,9 @@ public class URLEncoderBuilder {
 	// default charset is UTF-8
 	private Charset charset = UTF_8;
 	private final BitSet ignores = (BitSet) dontNeedEncoding.clone();
+	private long cacheMaximumSize = -1;
+	private long cacheMaximumWeight = -1;
+	private int cacheMaximumLength = 256;
 
 	public URLEncoderBuilder charset(Charset charset) {
 		this.charset = charset;
@@ -62,74 +69,262 @@ public class URLEncoderBuilder {
 		return this;
 	}
 
+	// maximum entries kept by buildCaching()
+	public URLEncoderBuilder cacheMaximumSize(long cacheMaximumSize) {
+		this.cacheMaximumSize = cacheMaximumSize;
+		return this;
+	}
+
+	// maximum approximate bytes of keys and values kept by buildCaching()
+	public URLEncoderBuilder cacheMaximumWeight(long cacheMaximumWeight) {
+		this.cacheMaximumWeight = cacheMaximumWeight;
+		return this;
+	}
+
+	// longer inputs are encoded but never cached
+	public URLEncoderBuilder cacheMaximumLength(int cacheMaximumLength) {
+		this.cacheMaximumLength = cacheMaximumLength;
+		return this;
+	}
+
 	public URLEncoder build() {
 		return new UrlEncoderImpl(charset, ignores);
 	}
 
+	// default limit is 1024 entries when neither size nor weight is set
+	public CachingURLEncoder buildCaching() {
+		long maximumSize = cacheMaximumSize;
+		long maximumWeight = cacheMaximumWeight;
+		if (maximumSize < 0 && maximumWeight < 0) {
+			maximumSize = 1024;
+		}
+		if (maximumSize == 0 || maximumWeight == 0 || cacheMaximumLength < 0) {
+			throw new IllegalArgumentException("Cache limits must be positive");
+		}
+		return new CachingURLEncoder(build(), maximumSize < 0 ? Long.MAX_VALUE : maximumSize,
+				maximumWeight < 0 ? Long.MAX_VALUE : maximumWeight, cacheMaximumLength);
+	}
+
+	// the charset is not used, the input bytes are expected to be encoded already
+	public URLByteEncoder buildByteEncoder() {
+		return new URLByteEncoderImpl(ignores);
+	}
+
 	private static final class UrlEncoderImpl implements URLEncoder {
 
+		private static final byte ENCODE = 0;
+		private static final byte COPY = 1;
+		private static final byte PLUS = 2;
+
 		private final Charset charset;
 		private final BitSet ignores;
+		private final boolean utf8;
+		// action for each char below 256, the rest are looked up in ignores
+		private final byte[] actions = new byte[256];
 
 		private UrlEncoderImpl(Charset charset, BitSet ignores) {
 			this.charset = charset;
-			this.ignores = ignores;
+			this.ignores = (BitSet) ignores.clone();
+			this.utf8 = UTF_8.equals(charset);
+			for (int c = 0; c < actions.length; c++) {
+				if (ignores.get(c)) {
+					actions[c] = c == ' ' ? PLUS : COPY;
+				}
+			}
+		}
+
+		private byte action(char c) {
+			if (c < 256) {
+				return actions[c];
+			}
+			return ignores.get(c) ? COPY : ENCODE;
 		}
 
 		@Override
 		public String encode(String s) {
-			boolean needToChange = false;
-			StringBuilder out = new StringBuilder(s.length());
-			CharArrayWriter charArrayWriter = new CharArrayWriter();
-			for (int i = 0; i < s.length();) {
-				int c = (int) s.charAt(i);
-				if (ignores.get(c)) {
-					if (c == ' ') {
-						c = '+';
-						needToChange = true;
-					}
-					out.append((char) c);
+			int len = s.length();
+			for (int i = 0; i < len; i++) {
+				if (action(s.charAt(i)) != COPY) {
+					StringBuilder out = new StringBuilder(len + 16).append(s, 0, i);
+					return encodeTo(s, i, out).toString();
+				}
+			}
+			return s;
+		}
+
+		@Override
+		public StringBuilder encodeTo(CharSequence s, StringBuilder out) {
+			return encodeTo(s, 0, out);
+		}
+
+		private StringBuilder encodeTo(CharSequence s, int from, StringBuilder out) {
+			try {
+				return encodeFrom(s, from, out);
+			} catch (IOException e) {
+				// StringBuilder never throws
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public <A extends Appendable> A encodeTo(CharSequence s, A out) throws IOException {
+			return encodeFrom(s, 0, out);
+		}
+
+		private <A extends Appendable> A encodeFrom(CharSequence s, int from, A out) throws IOException {
+			int len = s.length();
+			int copyStart = from;
+			for (int i = from; i < len;) {
+				byte action = action(s.charAt(i));
+				if (action == COPY) {
+					i++;
+					continue;
+				}
+				if (copyStart < i) {
+					out.append(s, copyStart, i);
+				}
+				if (action == PLUS) {
+					out.append('+');
 					i++;
+				} else if (utf8) {
+					i = encodeUtf8(s, i, len, out);
 				} else {
-					// convert to external encoding before hex conversion
-					do {
-						charArrayWriter.write(c);
-						if (c >= 0xD800 && c <= 0xDBFF) {
-							if ((i + 1) < s.length()) {
-								int d = (int) s.charAt(i + 1);
-								if (d >= 0xDC00 && d <= 0xDFFF) {
-									charArrayWriter.write(d);
-									i++;
-								}
-							}
-						}
-						i++;
-					} while (i < s.length() && !ignores.get((c = (int) s.charAt(i))));
-
-					charArrayWriter.flush();
-					String str = new String(charArrayWriter.toCharArray());
-					byte[] ba = str.getBytes(charset);
-					for (int j = 0; j < ba.length; j++) {
-						out.append('%');
-						char ch = Character.forDigit((ba[j] >> 4) & 0xF, 16);
-						// converting to use uppercase letter as part of
-						// the hex value if ch is a letter.
-						if (Character.isLetter(ch)) {
-							ch -= caseDiff;
+					i = encodeRun(s, i, len, out);
+				}
+				copyStart = i;
+			}
+			if (copyStart < len) {
+				out.append(s, copyStart, len);
+			}
+			return out;
+		}
+
+		// encodes one code point, lone surrogates become '?' like String.getBytes does
+		private static int encodeUtf8(CharSequence s, int i, int len, Appendable out) throws IOException {
+			char c = s.charAt(i++);
+			if (c < 0x80) {
+				appendByte(out, c);
+			} else if (c < 0x800) {
+				appendByte(out, 0xC0 | (c >> 6));
+				appendByte(out, 0x80 | (c & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				char d;
+				if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(d = s.charAt(i))) {
+					int cp = Character.toCodePoint(c, d);
+					i++;
+					appendByte(out, 0xF0 | (cp >> 18));
+					appendByte(out, 0x80 | ((cp >> 12) & 0x3F));
+					appendByte(out, 0x80 | ((cp >> 6) & 0x3F));
+					appendByte(out, 0x80 | (cp & 0x3F));
+				} else {
+					appendByte(out, '?');
+				}
+			} else {
+				appendByte(out, 0xE0 | (c >> 12));
+				appendByte(out, 0x80 | ((c >> 6) & 0x3F));
+				appendByte(out, 0x80 | (c & 0x3F));
+			}
+			return i;
+		}
+
+		// other charsets convert the whole unsafe run at once
+		private int encodeRun(CharSequence s, int i, int len, Appendable out) throws IOException {
+			int end = i + 1;
+			while (end < len && action(s.charAt(end)) == ENCODE) {
+				end++;
+			}
+			byte[] ba = s.subSequence(i, end).toString().getBytes(charset);
+			for (int j = 0; j < ba.length; j++) {
+				appendByte(out, ba[j]);
+			}
+			return end;
+		}
+
+		private static void appendByte(Appendable out, int b) throws IOException {
+			out.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+		}
+
+	}
+
+	private static final class URLByteEncoderImpl implements URLByteEncoder {
+
+		private static final byte ENCODE = 0;
+		private static final byte COPY = 1;
+		private static final byte PLUS = 2;
+
+		// bytes outside US-ASCII are always encoded
+		private final byte[] actions = new byte[128];
+
+		private URLByteEncoderImpl(BitSet ignores) {
+			for (int c = 0; c < actions.length; c++) {
+				if (ignores.get(c)) {
+					actions[c] = c == ' ' ? PLUS : COPY;
+				}
+			}
+		}
+
+		private byte action(byte b) {
+			return b < 0 ? ENCODE : actions[b];
+		}
+
+		@Override
+		public CoderResult encode(ByteBuffer src, ByteBuffer dst) {
+			int sp = src.position();
+			int sl = src.limit();
+			int dp = dst.position();
+			int dl = dst.limit();
+			try {
+				for (; sp < sl; sp++) {
+					byte b = src.get(sp);
+					byte action = action(b);
+					if (action == ENCODE) {
+						if (dl - dp < 3) {
+							return CoderResult.OVERFLOW;
 						}
-						out.append(ch);
-						ch = Character.forDigit(ba[j] & 0xF, 16);
-						if (Character.isLetter(ch)) {
-							ch -= caseDiff;
+						dst.put(dp++, (byte) '%');
+						dst.put(dp++, (byte) HEX_DIGITS[(b >> 4) & 0xF]);
+						dst.put(dp++, (byte) HEX_DIGITS[b & 0xF]);
+					} else {
+						if (dp == dl) {
+							return CoderResult.OVERFLOW;
 						}
-						out.append(ch);
+						dst.put(dp++, action == PLUS ? (byte) '+' : b);
 					}
-					charArrayWriter.reset();
-					needToChange = true;
 				}
+				return CoderResult.UNDERFLOW;
+			} finally {
+				src.position(sp);
+				dst.position(dp);
 			}
+		}
+
+		@Override
+		public int encodedLength(byte[] src, int off, int len) {
+			int n = len;
+			for (int i = off, end = off + len; i < end; i++) {
+				if (action(src[i]) == ENCODE) {
+					n += 2;
+				}
+			}
+			return n;
+		}
 
-			return (needToChange ? out.toString() : s);
+		@Override
+		public byte[] encode(byte[] src, int off, int len) {
+			byte[] dst = new byte[encodedLength(src, off, len)];
+			int dp = 0;
+			for (int i = off, end = off + len; i < end; i++) {
+				byte b = src[i];
+				byte action = action(b);
+				if (action == ENCODE) {
+					dst[dp++] = '%';
+					dst[dp++] = (byte) HEX_DIGITS[(b >> 4) & 0xF];
+					dst[dp++] = (byte) HEX_DIGITS[b & 0xF];
+				} else {
+					dst[dp++] = action == PLUS ? (byte) '+' : b;
+				}
+			}
+			return dst;
 		}
 
 	}
@@ -0,0 +1,82 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class TestCachingURLEncoder {
+
+	@Test
+	public void testCache() {
+		try {
+			CachingURLEncoder encoder = URLEncoderBuilder.newOAuth10a().cacheMaximumSize(4).buildCaching();
+			String s = "oauth_consumer_key";
+			String encoded = encoder.encode("a b*");
+			assertEquals("a%20b%2A", encoded);
+			assertSame(encoded, encoder.encode("a b*"));
+			assertEquals(s, encoder.encode(s));
+			assertEquals(1, encoder.hitCount());
+			assertEquals(2, encoder.missCount());
+
+			// hot keys survive a scan of one-off inputs
+			for (int i = 0; i < 10; i++) {
+				encoder.encode(s);
+			}
+			for (int i = 0; i < 100; i++) {
+				encoder.encode("value-" + i);
+			}
+			assertTrue(encoder.size() <= 4);
+			long hits = encoder.hitCount();
+			encoder.encode(s);
+			assertEquals(hits + 1, encoder.hitCount());
+			assertEquals("q=a%20b%2A", encoder.encodeTo("a b*", new StringBuilder("q=")).toString());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testWeight() {
+		try {
+			CachingURLEncoder encoder = URLEncoderBuilder.newInstance().cacheMaximumWeight(100).buildCaching();
+			for (int i = 0; i < 50; i++) {
+				encoder.encode("key" + (i % 5));
+			}
+			assertTrue(encoder.weight() <= 100);
+			assertTrue(encoder.hitRate() > 0.5);
+			assertThrows(IllegalArgumentException.class,
+					() -> URLEncoderBuilder.newInstance().cacheMaximumSize(0).buildCaching());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testRejectedAdmission() {
+		try {
+			// three entries of weight 16, the candidate weighs 24 so it needs two victims
+			CachingURLEncoder encoder = URLEncoderBuilder.newInstance().cacheMaximumWeight(48).buildCaching();
+			for (int i = 0; i < 5; i++) {
+				encoder.encode("h001");
+			}
+			encoder.encode("c001");
+			for (int i = 0; i < 5; i++) {
+				encoder.encode("h002");
+			}
+			assertEquals(3, encoder.size());
+			// loses to h001, which goes to the back
+			encoder.encode("x12345");
+			// beats c001 but loses to h002, nothing may be evicted
+			encoder.encode("x12345");
+			assertEquals(3, encoder.size());
+			assertEquals(48, encoder.weight());
+			assertEquals(0, encoder.evictionCount());
+			long hits = encoder.hitCount();
+			encoder.encode("c001");
+			assertEquals(hits + 1, encoder.hitCount());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TestFormBodyDecoder {
+
+	@Test
+	public void testDecode() {
+		try {
+			byte[] body = "a=1&name=%E4%B8%AD%E6%96%87+x&&raw=中文&flag&e=a=b&".getBytes("UTF-8");
+			List<String> expected = Arrays.asList("a", "1", "name", "中文 x", "raw", "中文", "flag", "", "e", "a=b");
+			// every chunk size splits escapes and characters somewhere
+			for (int size = 1; size <= 8; size++) {
+				FormBodyDecoder decoder = FormBodyDecoder.newInstance().bufferSize(size);
+				List<String> fields = new ArrayList<>();
+				assertEquals(5, decoder.decode(new ByteArrayInputStream(body), (n, v) -> {
+					fields.add(n);
+					fields.add(v);
+				}));
+				assertEquals(expected, fields);
+				fields.clear();
+				decoder.decode(Channels.newChannel(new ByteArrayInputStream(body)), (n, v) -> {
+					fields.add(n);
+					fields.add(v);
+				});
+				assertEquals(expected, fields);
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testLimits() {
+		try {
+			FormBodyDecoder.FieldHandler ignore = (n, v) -> {
+			};
+			FormBodyDecoder decoder = FormBodyDecoder.newInstance().maxFieldSize(4).maxFields(2);
+			assertEquals(2, decoder.decode(new ByteArrayInputStream("a=1234&b=%41%42".getBytes()), ignore));
+			assertThrows(IOException.class,
+					() -> decoder.decode(new ByteArrayInputStream("a=12345".getBytes()), ignore));
+			assertThrows(IOException.class,
+					() -> decoder.decode(new ByteArrayInputStream("a=1&b=2&c=3".getBytes()), ignore));
+			assertThrows(IllegalArgumentException.class,
+					() -> decoder.decode(new ByteArrayInputStream("a=%4".getBytes()), ignore));
+			assertThrows(IllegalArgumentException.class,
+					() -> decoder.decode(new ByteArrayInputStream("a=%4z".getBytes()), ignore));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TestHttpBodyHandlers {
+
+	private static HttpResponse response(byte[] body, boolean withLength) {
+		HttpResponse response = new HttpResponse(200, "OK", new ByteArrayInputStream(body));
+		return withLength ? response.header("Content-Length", String.valueOf(body.length)) : response;
+	}
+
+	private static String text(ByteBuffer frame) {
+		byte[] bytes = new byte[frame.remaining()];
+		frame.duplicate().get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testBytes() {
+		try {
+			byte[] body = new byte[100_000];
+			new Random(1).nextBytes(body);
+			assertArrayEquals(body, response(body, true).body(HttpBodyHandlers.ofBytes(body.length)));
+			assertArrayEquals(body, response(body, false).body(HttpBodyHandlers.ofBytes(body.length)));
+			assertEquals("", response(new byte[0], false).body(HttpBodyHandlers.ofString(StandardCharsets.UTF_8, 0)));
+			// known length fails before reading, unknown length once the cap is passed
+			ByteArrayInputStream in = new ByteArrayInputStream(body);
+			HttpResponse known = new HttpResponse(200, "OK", in).header("Content-Length", "100000");
+			IOException e = assertThrows(IOException.class, () -> known.body(HttpBodyHandlers.ofBytes(1000)));
+			assertEquals("Response body of 100000 bytes exceeds 1000 bytes", e.getMessage());
+			assertEquals(body.length, in.available());
+			in = new ByteArrayInputStream(body);
+			HttpResponse unknown = new HttpResponse(200, "OK", in);
+			e = assertThrows(IOException.class, () -> unknown.body(HttpBodyHandlers.ofBytes(1000)));
+			assertEquals("Response body exceeds 1000 bytes", e.getMessage());
+			assertTrue(in.available() > body.length - 20_000);
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testFileAndBuffers() {
+		Path file = null;
+		try {
+			byte[] body = new byte[70_000];
+			new Random(2).nextBytes(body);
+			Path path = file = Files.createTempFile("body", ".bin");
+			assertEquals(path, response(body, true).body(HttpBodyHandlers.toFile(path)));
+			assertArrayEquals(body, Files.readAllBytes(path));
+
+			ByteBufferPool pool = new ByteBufferPool(4096, 2, true);
+			List<Integer> sizes = new ArrayList<>();
+			long size = response(body, false)
+					.body(HttpBodyHandlers.ofBuffers(pool, Long.MAX_VALUE, b -> sizes.add(b.remaining())));
+			assertEquals(body.length, size);
+			assertEquals(body.length, sizes.stream().mapToInt(Integer::intValue).sum());
+			assertEquals(1, pool.allocated());
+			assertEquals(1, pool.pooled());
+			response(body, false).body(HttpBodyHandlers.ofBuffers(pool, Long.MAX_VALUE, b -> {
+			}));
+			assertEquals(1, pool.allocated());
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			if (file != null) {
+				file.toFile().delete();
+			}
+		}
+	}
+
+	@Test
+	public void testLinesAndFrames() {
+		try {
+			StringBuilder b = new StringBuilder();
+			List<String> expected = new ArrayList<>();
+			for (int i = 0; i < 5000; i++) {
+				String line = "line-" + i + "-中文" + String.join("", Collections.nCopies(i % 7, "x"));
+				expected.add(line);
+				b.append(line).append(i % 2 == 0 ? "\r\n" : "\n");
+			}
+			b.append("last");
+			expected.add("last");
+			List<String> lines = new ArrayList<>();
+			byte[] body = b.toString().getBytes(StandardCharsets.UTF_8);
+			long count = response(body, false).body(HttpBodyHandlers.ofLines(StandardCharsets.UTF_8, 64, lines::add));
+			assertEquals(expected.size(), count);
+			assertEquals(expected, lines);
+			IOException e = assertThrows(IOException.class, () -> response(body, false)
+					.body(HttpBodyHandlers.ofLines(StandardCharsets.UTF_8, 10, line -> {
+					})));
+			assertEquals("Line exceeds 10 bytes", e.getMessage());
+
+			List<String> frames = new ArrayList<>();
+			response("a|bb||ccc|".getBytes(), false)
+					.body(HttpBodyHandlers.ofFrames((byte) '|', 8, f -> frames.add(text(f))));
+			assertEquals(Arrays.asList("a", "bb", "", "ccc"), frames);
+
+			// length prefixed frames spanning the 16KB reads
+			ByteBuffer out = ByteBuffer.allocate(200_000);
+			List<String> written = new ArrayList<>();
+			for (int i = 0; out.remaining() > 10_000; i++) {
+				byte[] frame = String.join("", Collections.nCopies(i * 37 % 9000, "y")).concat(String.valueOf(i))
+						.getBytes(StandardCharsets.UTF_8);
+				out.putInt(frame.length).put(frame);
+				written.add(new String(frame, StandardCharsets.UTF_8));
+			}
+			byte[] framed = Arrays.copyOf(out.array(), out.position());
+			List<String> read = new ArrayList<>();
+			count = response(framed, false).body(HttpBodyHandlers.ofLengthFieldFrames(10_000, f -> read.add(text(f))));
+			assertEquals(written.size(), count);
+			assertEquals(written, read);
+			e = assertThrows(IOException.class, () -> response(Arrays.copyOf(framed, framed.length - 1), false)
+					.body(HttpBodyHandlers.ofLengthFieldFrames(10_000, f -> {
+					})));
+			assertEquals("Body ends inside a frame", e.getMessage());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TestHttpCompression {
+
+	private static final byte[] JSON = String
+			.join(",", Collections.nCopies(500, "{\"id\":12345,\"name\":\"simplecoding\",\"tags\":[\"a\",\"b\"]}"))
+			.getBytes(StandardCharsets.UTF_8);
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		for (int n; (n = in.read(buffer)) != -1;) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] decode(HttpCompression compression, String encoding, byte[] body) throws IOException {
+		HttpResponse response = new HttpResponse(200, "OK", new ByteArrayInputStream(body))
+				.header("Content-Encoding", encoding).header("Content-Length", String.valueOf(body.length));
+		HttpResponse decoded = compression.decode(response);
+		assertNull(decoded.header("content-encoding"));
+		assertNull(decoded.header("content-length"));
+		try (InputStream in = decoded.bodyStream()) {
+			return readAll(in);
+		}
+	}
+
+	@Test
+	public void testDecode() {
+		try {
+			HttpCompression compression = HttpCompression.Builder.newInstance().build();
+			assertEquals("gzip, deflate", compression.acceptEncoding());
+			assertArrayEquals(JSON, decode(compression, "gzip", gzip(JSON)));
+			// concatenated members
+			byte[] half = Arrays.copyOf(JSON, JSON.length / 2);
+			ByteArrayOutputStream members = new ByteArrayOutputStream();
+			members.write(gzip(half));
+			members.write(gzip(JSON));
+			ByteArrayOutputStream expected = new ByteArrayOutputStream();
+			expected.write(half);
+			expected.write(JSON);
+			assertArrayEquals(expected.toByteArray(), decode(compression, "x-gzip", members.toByteArray()));
+			// zlib wrapped
+			ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+			try (DeflaterOutputStream out = new DeflaterOutputStream(zlib)) {
+				out.write(JSON);
+			}
+			assertArrayEquals(JSON, decode(compression, "deflate", zlib.toByteArray()));
+			// raw deflate, what the gzip members carry
+			byte[] gzipped = gzip(JSON);
+			assertArrayEquals(JSON, decode(compression, "deflate", Arrays.copyOfRange(gzipped, 10, gzipped.length - 8)));
+			assertArrayEquals(new byte[0], decode(compression, "gzip", new byte[0]));
+			assertTrue(compression.responseRatio() < 0.1);
+
+			byte[] corrupt = gzip(JSON);
+			corrupt[corrupt.length - 5]++;
+			assertThrows(ZipException.class, () -> decode(compression, "gzip", corrupt));
+			assertThrows(IOException.class, () -> decode(compression, "gzip", Arrays.copyOf(gzipped, 100)));
+
+			HttpResponse plain = new HttpResponse(200, "OK", new ByteArrayInputStream(JSON)).header("Content-Encoding",
+					"br");
+			assertSame(plain, compression.decode(plain));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testCompress() {
+		try {
+			HttpCompression gzip = HttpCompression.Builder.newInstance().requestEncoding("gzip").build();
+			HttpBody small = HttpBody.of(new byte[100]);
+			assertSame(small, gzip.compress(small));
+			HttpBody chunked = HttpBody.ofInputStream(() -> new ByteArrayInputStream(JSON));
+			assertSame(chunked, gzip.compress(chunked));
+			for (int i = 0; i < 3; i++) {
+				HttpBody compressed = gzip.compress(HttpBody.of(JSON));
+				assertTrue(compressed.contentLength() < JSON.length / 10);
+				assertArrayEquals(JSON, readAll(new GZIPInputStream(compressed.newInputStream())));
+				// and back through our own decoder
+				assertArrayEquals(JSON, decode(gzip, "gzip", readAll(compressed.newInputStream())));
+			}
+			assertEquals(3L * JSON.length, gzip.requestBytes());
+			assertTrue(gzip.requestRatio() < 0.1);
+
+			HttpCompression deflate = HttpCompression.Builder.newInstance().requestEncoding("deflate").level(9)
+					.requestThreshold(0).build();
+			HttpBody compressed = deflate.compress(HttpBody.of(JSON));
+			assertArrayEquals(JSON, decode(deflate, "deflate", readAll(compressed.newInputStream())));
+			// incompressible bodies are sent as they are
+			byte[] random = new byte[4096];
+			new Random(1).nextBytes(random);
+			HttpBody body = HttpBody.of(random);
+			assertSame(body, deflate.compress(body));
+
+			// files and streams are deflated while they are read, as often as they are sent
+			Path file = Files.createTempFile("compress", ".json");
+			try {
+				Files.write(file, JSON);
+				for (HttpCompression compression : new HttpCompression[] { gzip, deflate }) {
+					HttpBody streamed = compression.compress(HttpBody.ofFile(file));
+					assertEquals(-1, streamed.contentLength());
+					for (int i = 0; i < 2; i++) {
+						assertArrayEquals(JSON, decode(compression, compression.requestEncoding(),
+								readAll(streamed.newInputStream())));
+					}
+				}
+				HttpBody streamed = gzip.compress(HttpBody.ofInputStream(() -> new ByteArrayInputStream(JSON),
+						JSON.length));
+				try (InputStream in = new GZIPInputStream(streamed.newInputStream())) {
+					assertArrayEquals(JSON, readAll(in));
+				}
+				assertEquals(6L * JSON.length, gzip.requestBytes());
+				assertTrue(gzip.requestRatio() < 0.1);
+			} finally {
+				Files.delete(file);
+			}
+
+			assertThrows(IllegalArgumentException.class,
+					() -> HttpCompression.Builder.newInstance().requestEncoding("br"));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testExchange() {
+		HttpServer server = null;
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+			server.createContext("/echo", exchange -> {
+				String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+				InputStream in = exchange.getRequestBody();
+				byte[] body = readAll("gzip".equals(contentEncoding) ? new GZIPInputStream(in) : in);
+				String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+				exchange.getResponseHeaders().add("X-Request-Encoding", String.valueOf(contentEncoding));
+				if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+					exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+					body = gzip(body);
+				}
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.start();
+			String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/echo";
+			HttpCompression compression = HttpCompression.Builder.newInstance().requestEncoding("gzip").build();
+			try (PooledHttpClient client = PooledHttpClient.Builder.newInstance().build()) {
+				for (int i = 0; i < 2; i++) {
+					HttpRequest request = new HttpRequest().method(HttpMethod.POST).url(url).body(JSON)
+							.compression(compression);
+					try (HttpResponse response = client.execute(request)) {
+						assertEquals("gzip", response.header("X-Request-Encoding"));
+						assertNull(response.header("Content-Encoding"));
+						assertArrayEquals(JSON, readAll(response.bodyStream()));
+					}
+				}
+				assertEquals(1, client.stats().created());
+			}
+			// a file body is deflated while it is sent, chunked
+			Path file = Files.createTempFile("exchange", ".json");
+			try (PooledHttpClient client = PooledHttpClient.Builder.newInstance().build()) {
+				Files.write(file, JSON);
+				HttpRequest request = new HttpRequest().method(HttpMethod.POST).url(url)
+						.body(HttpBody.ofFile(file)).compression(compression);
+				try (HttpResponse response = client.execute(request)) {
+					assertEquals("gzip", response.header("X-Request-Encoding"));
+					assertArrayEquals(JSON, readAll(response.bodyStream()));
+				}
+				try (JdkHttpRequest jdk = JdkHttpRequest.execute(request)) {
+					assertEquals("gzip", jdk.response().header("X-Request-Encoding"));
+					assertArrayEquals(JSON, readAll(jdk.response().bodyStream()));
+				}
+			} finally {
+				Files.delete(file);
+			}
+			HttpRequest request = new HttpRequest().method(HttpMethod.POST).url(url).body(JSON)
+					.compression(compression);
+			try (JdkHttpRequest jdk = JdkHttpRequest.execute(request)) {
+				assertEquals("gzip", jdk.response().header("X-Request-Encoding"));
+				assertArrayEquals(JSON, readAll(jdk.response().bodyStream()));
+			}
+			// not opted in
+			try (JdkHttpRequest jdk = JdkHttpRequest.execute(new HttpRequest().method(HttpMethod.POST).url(url)
+					.body(JSON))) {
+				assertEquals("null", jdk.response().header("X-Request-Encoding"));
+				assertArrayEquals(JSON, readAll(jdk.response().bodyStream()));
+			}
+			assertTrue(compression.requestRatio() < 0.1);
+			assertTrue(compression.responseRatio() < 0.1);
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			if (server != null) {
+				server.stop(0);
+			}
+		}
+	}
+
+}
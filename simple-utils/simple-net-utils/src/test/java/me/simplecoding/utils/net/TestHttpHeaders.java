@@ -0,0 +1,89 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TestHttpHeaders {
+
+	@Test
+	public void testHeaders() {
+		try {
+			HttpHeaders headers = new HttpHeaders(2);
+			headers.add("content-type", "text/plain").add("Set-Cookie", "a=1").add("X-Custom", "x")
+					.add("SET-COOKIE", "b=2").add("Connection", "Upgrade, Keep-Alive");
+			assertEquals(5, headers.size());
+			// well-known names share one instance
+			assertSame(HttpHeaders.intern("Content-Type"), headers.name(0));
+			assertEquals("Content-Type", headers.name(0));
+			assertEquals("Set-Cookie", headers.name(3));
+			assertEquals("x-custom", HttpHeaders.intern("x-custom"));
+			assertEquals("text/plain", headers.get("CONTENT-TYPE"));
+			assertEquals("x", headers.get("x-custom"));
+			assertNull(headers.get("X-Other"));
+			assertEquals(Arrays.asList("a=1", "b=2"), headers.getAll("set-cookie"));
+			assertEquals(Collections.singletonList("x"), headers.getAll("X-CUSTOM"));
+			assertEquals(Collections.emptyList(), headers.getAll("X-Other"));
+			assertTrue(headers.containsToken("connection", "keep-alive"));
+			assertTrue(headers.containsToken("connection", "upgrade"));
+			assertFalse(headers.containsToken("connection", "close"));
+			assertFalse(headers.containsToken("X-Other", "close"));
+
+			headers.set("set-cookie", "c=3");
+			assertEquals(Collections.singletonList("c=3"), headers.getAll("Set-Cookie"));
+			assertEquals(4, headers.size());
+			assertEquals("{Content-Type=text/plain, Set-Cookie=c=3, X-Custom=x, Connection=Upgrade, Keep-Alive}",
+					headers.toString());
+			HttpHeaders copy = headers.copy();
+			assertEquals("x", headers.remove("X-CUSTOM"));
+			assertNull(headers.remove("X-Custom"));
+			assertEquals(3, headers.size());
+			assertEquals(4, copy.size());
+			List<String> names = new ArrayList<>();
+			headers.forEach((k, v) -> names.add(k));
+			assertEquals(Arrays.asList("Content-Type", "Set-Cookie", "Connection"), names);
+			headers.clear();
+			assertTrue(headers.isEmpty());
+			assertThrows(IllegalArgumentException.class, () -> copy.add("X-Null", null));
+			assertThrows(IndexOutOfBoundsException.class, () -> copy.name(4));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testMessages() {
+		try {
+			HttpRequest request = new HttpRequest().header("Accept", "text/html").header("accept", "application/json")
+					.addHeader("X-Tag", "a").addHeader("x-tag", "b").fixHeader("ACCEPT", () -> "ignored");
+			assertEquals("application/json", request.header("Accept"));
+			assertEquals(Arrays.asList("a", "b"), request.headers().getAll("X-Tag"));
+			assertEquals("a", request.removeHeader("X-TAG"));
+			assertEquals(1, request.headers().size());
+
+			Map<String, String> map = new LinkedHashMap<>();
+			map.put("Content-Type", "text/plain");
+			HttpResponse response = new HttpResponse(200, "OK", map, new ByteArrayInputStream(new byte[0]))
+					.header("Vary", "Accept").header("vary", "Origin");
+			assertEquals("text/plain", response.header("content-type"));
+			assertEquals("Accept", response.header("VARY"));
+			assertEquals(Arrays.asList("Accept", "Origin"), response.headerValues("Vary"));
+			assertTrue(response.headerEquals("Content-Type", "text/plain"));
+			Map<String, String> legacy = new LinkedHashMap<>();
+			legacy.put("content-type", "text/plain");
+			legacy.put("vary", "Accept, Origin");
+			assertEquals(legacy, response.getHeaders());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TestHttpRequest {
+
+	@Test
+	public void testCompleteUrl() {
+		try {
+			HttpRequest request = new HttpRequest().url("http://localhost/path");
+			assertEquals("http://localhost/path", request.completeUrl());
+			request.addQuery("a", "1").addQuery("b c", "x&y").addQuery("a", "2");
+			String url = request.completeUrl();
+			assertEquals("http://localhost/path?a=1&a=2&b%20c=x%26y", url);
+			assertSame(url, request.completeUrl());
+
+			request.urlEncoder(URLEncoderBuilder.newJDK().build());
+			assertEquals("http://localhost/path?a=1&a=2&b+c=x%26y", request.completeUrl());
+			request.removeQuery("a");
+			assertEquals("http://localhost/path?b+c=x%26y", request.completeUrl());
+			request.url("http://localhost/other");
+			assertEquals("http://localhost/other?b+c=x%26y", request.completeUrl());
+
+			assertEquals(Arrays.asList("x&y"), request.querys("b c"));
+			assertThrows(UnsupportedOperationException.class, () -> request.queryParams().remove("b c"));
+			assertThrows(UnsupportedOperationException.class, () -> request.querys("b c").add("z"));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TestNettyAsyncHttpClient {
+
+	@Test
+	public void testExecuteAsync() {
+		HttpServer server = null;
+		CountDownLatch slow = new CountDownLatch(1);
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+			server.setExecutor(Executors.newFixedThreadPool(8));
+			server.createContext("/hello", exchange -> {
+				byte[] body = exchange.getRequestURI().getRawQuery().getBytes("UTF-8");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.createContext("/echo", exchange -> {
+				ByteArrayOutputStream body = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				for (int n; (n = exchange.getRequestBody().read(buffer)) != -1;) {
+					body.write(buffer, 0, n);
+				}
+				exchange.sendResponseHeaders(200, body.size());
+				try (OutputStream out = exchange.getResponseBody()) {
+					body.writeTo(out);
+				}
+			});
+			server.createContext("/slow", exchange -> {
+				try {
+					slow.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				exchange.sendResponseHeaders(204, -1);
+				exchange.close();
+			});
+			server.start();
+			String baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+
+			try (NettyAsyncHttpClient client = NettyAsyncHttpClient.Builder.newInstance().ioThreads(2)
+					.maxConnectionsPerHost(4).build()) {
+				List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+				for (int i = 0; i < 200; i++) {
+					futures.add(client.executeAsync(new HttpRequest().url(baseUrl + "/hello").addQuery("i", "" + i)));
+				}
+				for (int i = 0; i < futures.size(); i++) {
+					HttpResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+					assertTrue(response.isOk());
+					assertEquals("i=" + i, new String(readAll(response), "UTF-8"));
+				}
+				assertEquals(0, client.inFlight());
+
+				byte[] content = new byte[100_000];
+				Arrays.fill(content, (byte) 'x');
+				Path file = Files.createTempFile("body", ".txt");
+				try {
+					Files.write(file, content);
+					HttpBody[] bodies = { HttpBody.ofFile(file), HttpBody.ofInputStream(() -> Files.newInputStream(file)),
+							HttpBody.of(ByteBuffer.wrap(content)) };
+					for (HttpBody body : bodies) {
+						HttpResponse response = client.executeAsync(
+								new HttpRequest().method(HttpMethod.POST).url(baseUrl + "/echo").body(body))
+								.get(10, TimeUnit.SECONDS);
+						assertArrayEquals(content, readAll(response));
+					}
+				} finally {
+					file.toFile().delete();
+				}
+				assertEquals("i=x", new String(readAll(client.execute(new HttpRequest().url(baseUrl + "/hello")
+						.addQuery("i", "x"))), "UTF-8"));
+			}
+
+			// the same timeout type the blocking executors throw
+			try (NettyAsyncHttpClient client = NettyAsyncHttpClient.Builder.newInstance().build()) {
+				assertThrows(SocketTimeoutException.class, () -> client.execute(new HttpRequest()
+						.url(baseUrl + "/slow").readTimeout(200, TimeUnit.MILLISECONDS)));
+			}
+
+			try (NettyAsyncHttpClient client = NettyAsyncHttpClient.Builder.newInstance().maxInFlight(1)
+					.responseTimeout(3, TimeUnit.SECONDS).build()) {
+				CompletableFuture<HttpResponse> first = client.executeAsync(new HttpRequest().url(baseUrl + "/slow"));
+				CompletableFuture<HttpResponse> second = client.executeAsync(new HttpRequest().url(baseUrl + "/slow"));
+				ExecutionException e = assertThrows(ExecutionException.class, () -> second.get());
+				assertTrue(e.getCause() instanceof RejectedExecutionException);
+				slow.countDown();
+				assertEquals(204, first.get(5, TimeUnit.SECONDS).code());
+			}
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			slow.countDown();
+			if (server != null) {
+				server.stop(0);
+			}
+		}
+	}
+
+	private static byte[] readAll(HttpResponse response) throws Exception {
+		byte[] body = new byte[response.bodyStream().available()];
+		assertEquals(body.length, Math.max(0, response.bodyStream().read(body)));
+		return body;
+	}
+
+}
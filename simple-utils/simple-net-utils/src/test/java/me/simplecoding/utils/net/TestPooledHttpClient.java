@@ -0,0 +1,291 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+public class TestPooledHttpClient {
+
+	private static HttpServer server;
+	private static String baseUrl;
+
+	@BeforeAll
+	public static void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/fixed", exchange -> {
+			byte[] body = "hello".getBytes("UTF-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.createContext("/chunked", exchange -> {
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				for (int i = 0; i < 100; i++) {
+					out.write(("line " + i + "\n").getBytes("UTF-8"));
+					out.flush();
+				}
+			}
+		});
+		server.createContext("/echo", exchange -> {
+			byte[] body = readAll(exchange.getRequestBody());
+			String query = exchange.getRequestURI().getRawQuery();
+			exchange.getResponseHeaders().add("X-Query", query == null ? "" : query);
+			String encoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+			exchange.getResponseHeaders().add("X-Chunked", String.valueOf("chunked".equalsIgnoreCase(encoding)));
+			exchange.sendResponseHeaders(201, body.length == 0 ? -1 : body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.createContext("/close", exchange -> {
+			exchange.getResponseHeaders().add("Connection", "close");
+			exchange.sendResponseHeaders(200, 2);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("ok".getBytes("UTF-8"));
+			}
+		});
+		server.start();
+		baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+	}
+
+	@AfterAll
+	public static void stopServer() {
+		server.stop(0);
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		for (int n; (n = in.read(buffer)) != -1;) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testReuse() {
+		try (PooledHttpClient client = PooledHttpClient.Builder.newInstance().build()) {
+			for (int i = 0; i < 5; i++) {
+				try (HttpResponse response = client.execute(new HttpRequest().url(baseUrl + "/fixed"))) {
+					assertTrue(response.isOk());
+					assertEquals("hello", new String(readAll(response.bodyStream()), "UTF-8"));
+				}
+				try (HttpResponse response = client.execute(new HttpRequest().url(baseUrl + "/chunked"))) {
+					String body = new String(readAll(response.bodyStream()), "UTF-8");
+					assertTrue(body.startsWith("line 0\n") && body.endsWith("line 99\n"));
+				}
+			}
+			HttpRequest post = new HttpRequest().method(HttpMethod.POST).url(baseUrl + "/echo").addQuery("q", "a b")
+					.body("name=value".getBytes("UTF-8"));
+			try (HttpResponse response = client.execute(post)) {
+				assertEquals(201, response.code());
+				assertEquals("q=a%20b", response.header("X-Query"));
+				assertEquals("name=value", new String(readAll(response.bodyStream()), "UTF-8"));
+			}
+			// closing without reading drains the body and keeps the connection
+			client.execute(new HttpRequest().url(baseUrl + "/chunked")).close();
+			PoolStats stats = client.stats();
+			assertEquals(1, stats.created());
+			assertEquals(11, stats.reused());
+			assertEquals(0, stats.leased());
+			assertEquals(1, stats.idle());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testNotReusable() {
+		try (PooledHttpClient client = PooledHttpClient.Builder.newInstance()
+				.idleTimeout(50, TimeUnit.MILLISECONDS).build()) {
+			for (int i = 0; i < 2; i++) {
+				try (HttpResponse response = client.execute(new HttpRequest().url(baseUrl + "/close"))) {
+					assertEquals("ok", new String(readAll(response.bodyStream()), "UTF-8"));
+				}
+			}
+			assertEquals(2, client.stats().created());
+			assertEquals(2, client.stats().closed());
+
+			client.execute(new HttpRequest().url(baseUrl + "/fixed")).close();
+			Thread.sleep(100);
+			client.execute(new HttpRequest().url(baseUrl + "/fixed")).close();
+			PoolStats stats = client.stats();
+			assertEquals(4, stats.created());
+			assertEquals(0, stats.reused());
+			assertEquals(1, client.hostStats().size());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testMaxConnections() {
+		try (PooledHttpClient client = PooledHttpClient.Builder.newInstance().maxConnectionsPerHost(1)
+				.acquireTimeout(100, TimeUnit.MILLISECONDS).build()) {
+			HttpResponse leased = client.execute(new HttpRequest().url(baseUrl + "/fixed"));
+			assertEquals(1, client.stats().leased());
+			assertThrows(IOException.class, () -> client.execute(new HttpRequest().url(baseUrl + "/fixed")));
+			leased.close();
+			client.execute(new HttpRequest().url(baseUrl + "/fixed")).close();
+			assertEquals(1, client.stats().created());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testBodies() {
+		Path file = null;
+		try (PooledHttpClient client = PooledHttpClient.Builder.newInstance().build()) {
+			byte[] content = new byte[200_000];
+			for (int i = 0; i < content.length; i++) {
+				content[i] = (byte) ('a' + i % 26);
+			}
+			Path path = file = Files.createTempFile("body", ".txt");
+			Files.write(path, content);
+			HttpBody[] bodies = { HttpBody.ofFile(path), HttpBody.ofFile(path, 10, 1000),
+					HttpBody.of(ByteBuffer.wrap(content, 0, 100), ByteBuffer.wrap(content, 100, content.length - 100)),
+					HttpBody.ofInputStream(() -> Files.newInputStream(path)),
+					HttpBody.ofChannel(() -> Channels.newChannel(Files.newInputStream(path))) };
+			byte[][] expected = { content, Arrays.copyOfRange(content, 10, 1010), content, content, content };
+			boolean[] chunked = { false, false, false, true, true };
+			for (int i = 0; i < bodies.length; i++) {
+				HttpRequest request = new HttpRequest().method(HttpMethod.PUT).url(baseUrl + "/echo").body(bodies[i]);
+				try (HttpResponse response = client.execute(request)) {
+					assertEquals(String.valueOf(chunked[i]), response.header("X-Chunked"));
+					assertArrayEquals(expected[i], readAll(response.bodyStream()), "body " + i);
+				}
+				try (JdkHttpRequest jdk = JdkHttpRequest.execute(request)) {
+					assertArrayEquals(expected[i], readAll(jdk.response().bodyStream()), "jdk body " + i);
+				}
+			}
+			assertEquals(1, client.stats().created());
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			if (file != null) {
+				file.toFile().delete();
+			}
+		}
+	}
+
+	@Test
+	public void testHttpsBodies() {
+		HttpsServer httpsServer = null;
+		Path file = null;
+		try {
+			KeyStore keyStore = KeyStore.getInstance("PKCS12");
+			try (InputStream in = TestPooledHttpClient.class.getResourceAsStream("/test-keystore.p12")) {
+				keyStore.load(in, "changeit".toCharArray());
+			}
+			KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+			kmf.init(keyStore, "changeit".toCharArray());
+			TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+			tmf.init(keyStore);
+			SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+			httpsServer = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+			httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+			httpsServer.createContext("/echo", exchange -> {
+				byte[] body = readAll(exchange.getRequestBody());
+				exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			httpsServer.start();
+			String url = "https://localhost:" + httpsServer.getAddress().getPort() + "/echo";
+			byte[] content = new byte[100_000];
+			for (int i = 0; i < content.length; i++) {
+				content[i] = (byte) ('a' + i % 26);
+			}
+			Path path = file = Files.createTempFile("body", ".txt");
+			Files.write(path, content);
+			// known lengths, which take the channel path over plain connections
+			HttpBody[] bodies = { HttpBody.of(content), HttpBody.ofFile(path),
+					HttpBody.of(ByteBuffer.wrap(content, 0, 100), ByteBuffer.wrap(content, 100, content.length - 100)) };
+			try (PooledHttpClient client = PooledHttpClient.Builder.newInstance()
+					.sslSocketFactory(sslContext.getSocketFactory()).build()) {
+				for (int i = 0; i < bodies.length; i++) {
+					HttpRequest request = new HttpRequest().method(HttpMethod.PUT).url(url).body(bodies[i]);
+					try (HttpResponse response = client.execute(request)) {
+						assertEquals(200, response.code());
+						assertArrayEquals(content, readAll(response.bodyStream()), "body " + i);
+					}
+				}
+				assertEquals(1, client.stats().created());
+			}
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			if (httpsServer != null) {
+				httpsServer.stop(0);
+			}
+			if (file != null) {
+				file.toFile().delete();
+			}
+		}
+	}
+
+	@Test
+	public void testTruncatedHeaders() {
+		String[] responses = { "HTTP/1.1 200 OK\r\nContent-Length: 5\r\n", "HTTP/1.1 100 Continue\r\nX-A: b" };
+		try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+				PooledHttpClient client = PooledHttpClient.Builder.newInstance().build()) {
+			Thread serverThread = new Thread(() -> {
+				for (String response : responses) {
+					try (Socket socket = serverSocket.accept()) {
+						InputStream in = socket.getInputStream();
+						for (String line; (line = PooledHttpClient.readLine(in)) != null && !line.isEmpty();) {
+						}
+						socket.getOutputStream().write(response.getBytes("ISO-8859-1"));
+						socket.getOutputStream().flush();
+					} catch (IOException e) {
+						return;
+					}
+				}
+			});
+			serverThread.setDaemon(true);
+			serverThread.start();
+			String url = "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort()
+					+ "/";
+			for (int i = 0; i < responses.length; i++) {
+				IOException e = assertThrows(IOException.class, () -> client.execute(new HttpRequest().url(url)));
+				assertTrue(e instanceof EOFException, e.toString());
+			}
+			serverThread.join(5000);
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TestQueryString {
+
+	@Test
+	public void testParse() {
+		try {
+			QueryString qs = QueryString.parse("?a=1&b=x+y&&a=%E4%B8%AD&flag&c%20d=&=e");
+			assertEquals(6, qs.size());
+			assertEquals("1", qs.get("a"));
+			assertEquals(Arrays.asList("1", "中"), qs.getAll("a"));
+			assertEquals("x y", qs.get("b"));
+			assertTrue(qs.contains("flag"));
+			assertEquals("", qs.get("flag"));
+			assertEquals("", qs.get("c d"));
+			assertEquals("e", qs.get(""));
+			assertNull(qs.get("missing"));
+			assertEquals(Collections.emptyList(), qs.getAll("missing"));
+
+			Map<String, List<String>> map = qs.asMap();
+			assertEquals(5, map.size());
+			assertEquals(Arrays.asList("1", "中"), map.get("a"));
+			assertEquals(Arrays.asList("a", "b", "flag", "c d", ""), new ArrayList<>(map.keySet()));
+
+			assertEquals("x=1&y=2", QueryString.fromUrl("http://host/p?x=1&y=2#frag").toString());
+			assertTrue(QueryString.fromUrl("http://host/p").isEmpty());
+			QueryString nested = QueryString.fromUrl("http://h/p?next=/a?b=1&x=2");
+			assertEquals("/a?b=1", nested.get("next"));
+			assertEquals("2", nested.get("x"));
+			assertTrue(QueryString.fromUrl("http://host/p#a?b=1").isEmpty());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testPopulate() {
+		try {
+			HttpRequest request = QueryString.parse("a=1&b=2&a=3").populate(new HttpRequest());
+			assertEquals(Arrays.asList("1", "3"), request.querys("a"));
+			assertEquals("2", request.query("b"));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+package me.simplecoding.utils.net;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TestRetryingHttpExecutor {
+
+	private static HttpResponse response(int code) {
+		return new HttpResponse(code, "", new ByteArrayInputStream(new byte[0]));
+	}
+
+	@Test
+	public void testRetry() {
+		try {
+			assertTrue(HttpMethod.PUT.idempotent());
+			assertFalse(HttpMethod.POST.idempotent());
+			AtomicInteger calls = new AtomicInteger();
+			HttpExecutor flaky = request -> {
+				int n = calls.incrementAndGet();
+				if (n == 1) {
+					throw new IOException("reset");
+				}
+				return response(n == 2 ? 503 : 200);
+			};
+			RetryingHttpExecutor executor = RetryingHttpExecutor.Builder.newInstance(flaky)
+					.initialBackoff(1, TimeUnit.MILLISECONDS).build();
+			try (HttpResponse response = executor.execute(new HttpRequest().url("http://localhost/"))) {
+				assertEquals(200, response.code());
+			}
+			assertEquals(3, calls.get());
+			assertEquals(2, executor.retryCount());
+
+			// not idempotent
+			calls.set(0);
+			assertThrows(IOException.class,
+					() -> executor.execute(new HttpRequest().method(HttpMethod.POST).url("http://localhost/")));
+			assertEquals(1, calls.get());
+
+			// attempts run out
+			AtomicInteger failures = new AtomicInteger();
+			RetryingHttpExecutor failing = RetryingHttpExecutor.Builder.newInstance(request -> {
+				failures.incrementAndGet();
+				throw new IOException("down");
+			}).maxAttempts(4).initialBackoff(1, TimeUnit.MILLISECONDS).build();
+			assertThrows(IOException.class, () -> failing.execute(new HttpRequest().url("http://localhost/")));
+			assertEquals(4, failures.get());
+
+			// the backoff would pass the deadline, the last response is returned
+			AtomicInteger unavailable = new AtomicInteger();
+			RetryingHttpExecutor slow = RetryingHttpExecutor.Builder.newInstance(request -> {
+				unavailable.incrementAndGet();
+				return response(503);
+			}).initialBackoff(500, TimeUnit.MILLISECONDS).jitter(0).build();
+			HttpRequest request = new HttpRequest().url("http://localhost/").deadlineAfter(100, TimeUnit.MILLISECONDS);
+			assertEquals(503, slow.execute(request).code());
+			assertEquals(1, unavailable.get());
+			Thread.sleep(120);
+			assertThrows(SocketTimeoutException.class, () -> request.timeoutMillis(0, 0));
+			assertEquals(100, new HttpRequest().timeoutMillis(0, 100));
+			assertEquals(0, new HttpRequest().timeoutMillis(0, 0));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testHedging() {
+		try {
+			AtomicBoolean stuck = new AtomicBoolean();
+			AtomicBoolean slowClosed = new AtomicBoolean();
+			HttpExecutor delegate = request -> {
+				try {
+					if (stuck.compareAndSet(true, false)) {
+						// the stuck attempt
+						Thread.sleep(1000);
+						return new HttpResponse(200, "slow", new ByteArrayInputStream(new byte[0]) {
+							@Override
+							public void close() {
+								slowClosed.set(true);
+							}
+						});
+					}
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				return new HttpResponse(200, "fast", new ByteArrayInputStream(new byte[0]));
+			};
+			try (RetryingHttpExecutor executor = RetryingHttpExecutor.Builder.newInstance(delegate).hedging(true)
+					.latencyWindow(64).minHedgeDelay(20, TimeUnit.MILLISECONDS).build()) {
+				for (int i = 0; i < 30; i++) {
+					executor.execute(new HttpRequest().url("http://localhost/")).close();
+				}
+				assertTrue(executor.p95LatencyNanos() > 0);
+				long hedges = executor.hedgeCount();
+				long hedgeWins = executor.hedgeWinCount();
+				stuck.set(true);
+				long start = System.nanoTime();
+				try (HttpResponse response = executor.execute(new HttpRequest().url("http://localhost/"))) {
+					assertEquals("fast", response.message());
+				}
+				assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+				assertEquals(hedges + 1, executor.hedgeCount());
+				assertEquals(hedgeWins + 1, executor.hedgeWinCount());
+				// POST is never hedged
+				assertEquals("fast",
+						executor.execute(new HttpRequest().method(HttpMethod.POST).url("http://localhost/")).message());
+				Thread.sleep(1200);
+				assertTrue(slowClosed.get());
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testTimeouts() {
+		HttpServer server = null;
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+			server.createContext("/slow", exchange -> {
+				try {
+					Thread.sleep(1000);
+				} catch (InterruptedException e) {
+				}
+				exchange.sendResponseHeaders(200, 2);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write("ok".getBytes());
+				} catch (IOException e) {
+				}
+			});
+			server.start();
+			String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/slow";
+			try (PooledHttpClient client = PooledHttpClient.Builder.newInstance().build()) {
+				long start = System.nanoTime();
+				assertThrows(SocketTimeoutException.class,
+						() -> client.execute(new HttpRequest().url(url).readTimeout(100, TimeUnit.MILLISECONDS)));
+				assertThrows(SocketTimeoutException.class,
+						() -> client.execute(new HttpRequest().url(url).deadlineAfter(100, TimeUnit.MILLISECONDS)));
+				assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(900));
+			}
+			assertThrows(SocketTimeoutException.class, () -> JdkHttpRequest
+					.execute(new HttpRequest().url(url).readTimeout(100, TimeUnit.MILLISECONDS)));
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			if (server != null) {
+				server.stop(0);
+			}
+		}
+	}
+
+}
@@ -2,6 +2,11 @@ package me.simplecoding.utils.net;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class TestURLDecoder {
@@ -18,4 +23,93 @@ public class TestURLDecoder {
 		}
 	}
 
+	@Test
+	public void testByteDecoder() {
+		try {
+			URLByteDecoder decoder = URLDecoderBuilder.newInstance().buildByteDecoder();
+			String s = "a b&c=\u00e9\u4e2d~";
+			byte[] encoded = java.net.URLEncoder.encode(s, "UTF-8").getBytes("US-ASCII");
+			assertEquals(s, new String(decoder.decode(encoded), "UTF-8"));
+
+			// escapes split across chunks stay in the source buffer
+			ByteBuffer src = ByteBuffer.allocate(5);
+			ByteBuffer dst = ByteBuffer.allocate(3);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			int read = 0;
+			for (;;) {
+				int n = Math.min(src.remaining(), encoded.length - read);
+				src.put(encoded, read, n);
+				read += n;
+				src.flip();
+				boolean endOfInput = read == encoded.length;
+				CoderResult result;
+				do {
+					result = decoder.decode(src, dst, endOfInput);
+					out.write(dst.array(), 0, dst.position());
+					dst.clear();
+				} while (result.isOverflow());
+				src.compact();
+				if (endOfInput) {
+					break;
+				}
+			}
+			assertEquals(s, new String(out.toByteArray(), "UTF-8"));
+
+			assertThrows(IllegalArgumentException.class, () -> decoder.decode("abc%2".getBytes()));
+			assertThrows(IllegalArgumentException.class, () -> decoder.decode("abc%zz".getBytes()));
+			assertArrayEquals(new byte[] { 4, 0 }, decoder.decode("%+4%-0".getBytes()));
+			assertThrows(IllegalArgumentException.class, () -> decoder.decode("%-1".getBytes()));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testCompatibleWithJDK() {
+		try {
+			URLDecoder decoder = URLDecoderBuilder.newInstance().build();
+			String plain = "abc-_.*";
+			assertSame(plain, decoder.decode(plain));
+			Random random = new Random(0);
+			for (int n = 0; n < 1000; n++) {
+				byte[] bytes = new byte[random.nextInt(16)];
+				random.nextBytes(bytes);
+				StringBuilder encoded = new StringBuilder();
+				for (byte b : bytes) {
+					encoded.append(String.format("%%%02x", b & 0xFF)).append(random.nextInt(4) == 0 ? "+" : "");
+				}
+				String s = encoded.toString();
+				assertEquals(java.net.URLDecoder.decode(s, "UTF-8"), decoder.decode(s), s);
+			}
+			String s = "%E4%B8%AD%C3a+%F0%9F%98%80%80";
+			assertEquals(java.net.URLDecoder.decode(s, "UTF-8"), decoder.decode(s));
+			assertEquals(java.net.URLDecoder.decode(s, "GBK"),
+					URLDecoderBuilder.newInstance().charset(java.nio.charset.Charset.forName("GBK")).build().decode(s));
+
+			StringBuilder b = new StringBuilder("q=");
+			assertSame(b, decoder.decodeTo("a%20b", b));
+			assertEquals("q=a b", b.toString());
+
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> decoder.decode("a%zz"));
+			try {
+				Integer.parseInt("zz", 16);
+				fail();
+			} catch (NumberFormatException expected) {
+				assertEquals("URLDecoder: Illegal hex characters in escape (%) pattern - " + expected.getMessage(),
+						e.getMessage());
+			}
+			e = assertThrows(IllegalArgumentException.class, () -> decoder.decode("a%2"));
+			assertEquals("URLDecoder: Incomplete trailing escape (%) pattern", e.getMessage());
+
+			// signed escapes as Integer.parseInt reads them
+			for (String signed : new String[] { "%+4a", "x%-0%+F" }) {
+				assertEquals(java.net.URLDecoder.decode(signed, "UTF-8"), decoder.decode(signed), signed);
+			}
+			e = assertThrows(IllegalArgumentException.class, () -> decoder.decode("a%-1"));
+			assertEquals("URLDecoder: Illegal hex characters in escape (%) pattern - negative value", e.getMessage());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
 }
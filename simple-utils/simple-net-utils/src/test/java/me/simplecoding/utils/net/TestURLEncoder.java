@@ -2,6 +2,11 @@ package me.simplecoding.utils.net;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class TestURLEncoder {
@@ -18,4 +23,73 @@ public class TestURLEncoder {
 		}
 	}
 
+	@Test
+	public void testCompatibleWithJDK() {
+		try {
+			URLEncoder encoder = URLEncoderBuilder.newJDK().build();
+			String s = "a b&c=d/\u00e9\u4e2d\ud83d\ude00\ud800x\udc00";
+			assertEquals(java.net.URLEncoder.encode(s, "UTF-8"), encoder.encode(s));
+			assertEquals(java.net.URLEncoder.encode(s, "GBK"),
+					URLEncoderBuilder.newJDK().charset(java.nio.charset.Charset.forName("GBK")).build().encode(s));
+			Random random = new Random(0);
+			for (int n = 0; n < 1000; n++) {
+				char[] cs = new char[random.nextInt(20)];
+				for (int i = 0; i < cs.length; i++) {
+					cs[i] = (char) (random.nextBoolean() ? random.nextInt(128) : random.nextInt(0x10000));
+				}
+				String r = new String(cs);
+				assertEquals(java.net.URLEncoder.encode(r, "UTF-8"), encoder.encode(r));
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testEncodeTo() {
+		try {
+			URLEncoder encoder = URLEncoderBuilder.newOAuth10a().build();
+			String safe = "abc-_.~";
+			assertSame(safe, encoder.encode(safe));
+			StringBuilder b = new StringBuilder("q=");
+			assertSame(b, encoder.encodeTo("a b*\u00e9", b));
+			assertEquals("q=a%20b%2A%C3%A9", b.toString());
+			StringWriter w = encoder.encodeTo(new StringBuilder("x/y"), new StringWriter());
+			assertEquals("x%2Fy", w.toString());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testByteEncoder() {
+		try {
+			URLByteEncoder encoder = URLEncoderBuilder.newJDK().buildByteEncoder();
+			String s = "a b&c=\u00e9\u4e2d~";
+			String expected = java.net.URLEncoder.encode(s, "UTF-8");
+			byte[] bytes = s.getBytes("UTF-8");
+			assertEquals(expected, new String(encoder.encode(bytes), "US-ASCII"));
+			assertEquals(expected.length(), encoder.encodedLength(bytes, 0, bytes.length));
+
+			// chunked through a small destination buffer
+			ByteBuffer src = ByteBuffer.wrap(bytes);
+			ByteBuffer dst = ByteBuffer.allocate(4);
+			StringBuilder out = new StringBuilder();
+			for (;;) {
+				CoderResult result = encoder.encode(src, dst);
+				dst.flip();
+				while (dst.hasRemaining()) {
+					out.append((char) dst.get());
+				}
+				dst.clear();
+				if (result.isUnderflow()) {
+					break;
+				}
+			}
+			assertEquals(expected, out.toString());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
 }
@@ -0,0 +1,28 @@
+package me.simplecoding.utils.benchmark;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs JMH with the GC profiler always on, so allocation rates are reported next to throughput. Takes the usual JMH
+ * command line: {@code java -jar target/benchmarks.jar URLCodec -t 4}.
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		boolean gc = false;
+		for (int i = 0; i < args.length - 1; i++) {
+			if ("-prof".equals(args[i]) && args[i + 1].startsWith("gc")) {
+				gc = true;
+			}
+		}
+		if (!gc) {
+			args = Arrays.copyOf(args, args.length + 2);
+			args[args.length - 2] = "-prof";
+			args[args.length - 1] = "gc";
+		}
+		Main.main(args);
+	}
+
+}
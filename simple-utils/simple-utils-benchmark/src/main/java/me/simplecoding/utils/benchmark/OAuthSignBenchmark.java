@@ -0,0 +1,46 @@
+package me.simplecoding.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.simplecoding.utils.net.HttpMethod;
+import me.simplecoding.utils.net.HttpRequest;
+import me.simplecoding.utils.net.URLEncoderBuilder;
+import me.simplecoding.utils.net.oauth.OAuth10aService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OAuthSignBenchmark {
+
+	private final OAuth10aService service = OAuth10aService.Builder.newInstance().consumerKey("dpf43f3p2l4k3l03")
+			.secret("kd94hf93k423kf44").build();
+	private final OAuth10aService cachingService = OAuth10aService.Builder.newInstance()
+			.consumerKey("dpf43f3p2l4k3l03").secret("kd94hf93k423kf44")
+			.urlEncoder(URLEncoderBuilder.newOAuth10a().buildCaching()).build();
+	private final HttpRequest request = new HttpRequest().method(HttpMethod.GET)
+			.url("http://photos.example.net/photos").addQuery("file", "vacation.jpg").addQuery("size", "original");
+
+	@Benchmark
+	public HttpRequest sign() {
+		return service.sign(request, "nnch734d00sl2jdk", "pfkkdhi9sl3r4s00");
+	}
+
+	@Benchmark
+	public HttpRequest signWithCachingEncoder() {
+		return cachingService.sign(request, "nnch734d00sl2jdk", "pfkkdhi9sl3r4s00");
+	}
+
+}
@@ -0,0 +1,78 @@
+package me.simplecoding.utils.benchmark;
+
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.simplecoding.utils.uuid.UUIDUtils;
+
+/**
+ * Inserts freshly generated IDs into a sorted index ordered like a
+ * {@code BINARY(16)} column, so the cost of scattered inserts versus
+ * right-hand appends shows up as throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SequentialInsertBenchmark {
+
+	private static final int BATCH = 100_000;
+
+	private static final Comparator<UUID> binaryOrder = (a, b) -> {
+		int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+		return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+	};
+
+	@Param({ "uuid1", "uuid6", "uuid7", "random" })
+	private String generator;
+
+	private Supplier<UUID> supplier;
+
+	@Setup
+	public void setup() {
+		switch (generator) {
+		case "uuid1":
+			supplier = UUIDUtils::uuid1;
+			break;
+		case "uuid6":
+			supplier = UUIDUtils::uuid6;
+			break;
+		case "uuid7":
+			supplier = UUIDUtils::uuid7;
+			break;
+		default:
+			supplier = UUID::randomUUID;
+			break;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public TreeMap<UUID, Boolean> insert() {
+		TreeMap<UUID, Boolean> index = new TreeMap<>(binaryOrder);
+		Supplier<UUID> supplier = this.supplier;
+		for (int i = 0; i < BATCH; i++) {
+			index.put(supplier.get(), Boolean.TRUE);
+		}
+		return index;
+	}
+
+}
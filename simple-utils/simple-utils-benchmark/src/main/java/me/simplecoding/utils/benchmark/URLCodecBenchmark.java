@@ -0,0 +1,88 @@
+package me.simplecoding.utils.benchmark;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.simplecoding.utils.net.URLDecoder;
+import me.simplecoding.utils.net.URLDecoderBuilder;
+import me.simplecoding.utils.net.URLEncoder;
+import me.simplecoding.utils.net.URLEncoderBuilder;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class URLCodecBenchmark {
+
+	@Param({ "ascii", "mixed", "cjk" })
+	private String input;
+
+	private final URLEncoder encoder = URLEncoderBuilder.newJDK().build();
+	private final URLDecoder decoder = URLDecoderBuilder.newInstance().build();
+	private final StringBuilder buffer = new StringBuilder(256);
+	private String text;
+	private String encoded;
+
+	@Setup
+	public void setup() throws UnsupportedEncodingException {
+		switch (input) {
+		case "ascii":
+			text = "oauth_consumer_key=dpf43f3p2l4k3l03&oauth_signature_method=HMAC-SHA1&size=original";
+			break;
+		case "mixed":
+			text = "q=hello world&city=São Paulo&name=张三&tag=café & crème";
+			break;
+		default:
+			text = "搜索关键词中文编码测试数据包含汉字";
+			break;
+		}
+		encoded = java.net.URLEncoder.encode(text, "UTF-8");
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode(text);
+	}
+
+	@Benchmark
+	public StringBuilder encodeTo() {
+		buffer.setLength(0);
+		return encoder.encodeTo(text, buffer);
+	}
+
+	@Benchmark
+	public String jdkEncode() throws UnsupportedEncodingException {
+		return java.net.URLEncoder.encode(text, "UTF-8");
+	}
+
+	@Benchmark
+	public String decode() {
+		return decoder.decode(encoded);
+	}
+
+	@Benchmark
+	public StringBuilder decodeTo() {
+		buffer.setLength(0);
+		return decoder.decodeTo(encoded, buffer);
+	}
+
+	@Benchmark
+	public String jdkDecode() throws UnsupportedEncodingException {
+		return java.net.URLDecoder.decode(encoded, "UTF-8");
+	}
+
+}
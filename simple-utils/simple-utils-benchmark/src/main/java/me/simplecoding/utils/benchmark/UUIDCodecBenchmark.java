@@ -0,0 +1,75 @@
+package me.simplecoding.utils.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.simplecoding.utils.uuid.UUIDUtils;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UUIDCodecBenchmark {
+
+	private final UUID uuid = UUIDUtils.uuid1();
+	private final String hex = UUIDUtils.toHexString(uuid);
+	private final String base64 = UUIDUtils.toBase64String(uuid);
+	private final String base62 = UUIDUtils.toBase62String(uuid);
+	private final char[] chars = new char[32];
+	private final byte[] bytes = new byte[32];
+
+	@Benchmark
+	public String toHexString() {
+		return UUIDUtils.toHexString(uuid);
+	}
+
+	@Benchmark
+	public String toBase64String() {
+		return UUIDUtils.toBase64String(uuid);
+	}
+
+	@Benchmark
+	public String toBase62String() {
+		return UUIDUtils.toBase62String(uuid);
+	}
+
+	@Benchmark
+	public char[] toBase64Chars() {
+		UUIDUtils.toBase64(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 0);
+		return chars;
+	}
+
+	@Benchmark
+	public byte[] toBase62Bytes() {
+		UUIDUtils.toBase62(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), bytes, 0);
+		return bytes;
+	}
+
+	@Benchmark
+	public UUID fromHex() {
+		return UUIDUtils.fromHex(hex);
+	}
+
+	@Benchmark
+	public UUID fromBase64() {
+		return UUIDUtils.fromBase64(base64);
+	}
+
+	@Benchmark
+	public UUID fromBase62() {
+		return UUIDUtils.fromBase62(base62);
+	}
+
+}
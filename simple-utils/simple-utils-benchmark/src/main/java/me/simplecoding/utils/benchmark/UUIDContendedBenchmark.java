@@ -0,0 +1,57 @@
+package me.simplecoding.utils.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.simplecoding.utils.uuid.UUIDUtils;
+
+// the single-threaded numbers are in UUIDGenerationBenchmark and UUIDCodecBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class UUIDContendedBenchmark {
+
+	private final UUID uuid = UUIDUtils.uuid1();
+	private final String hex = UUIDUtils.toHexString(uuid);
+
+	@Benchmark
+	public UUID uuid1() {
+		return UUIDUtils.uuid1();
+	}
+
+	@Benchmark
+	public UUID uuid7() {
+		return UUIDUtils.uuid7();
+	}
+
+	@Benchmark
+	public String uuid1Hex() {
+		return UUIDUtils.toHexString(UUIDUtils.uuid1());
+	}
+
+	@Benchmark
+	public String toHexString() {
+		return UUIDUtils.toHexString(uuid);
+	}
+
+	@Benchmark
+	public UUID fromHex() {
+		return UUIDUtils.fromHex(hex);
+	}
+
+}
@@ -0,0 +1,43 @@
+package me.simplecoding.utils.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.simplecoding.utils.uuid.UUIDUtils;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDGenerationBenchmark {
+
+	@Benchmark
+	public UUID uuid1() {
+		return UUIDUtils.uuid1();
+	}
+
+	@Benchmark
+	public UUID uuid6() {
+		return UUIDUtils.uuid6();
+	}
+
+	@Benchmark
+	public UUID uuid7() {
+		return UUIDUtils.uuid7();
+	}
+
+	@Benchmark
+	public UUID randomUUID() {
+		return UUID.randomUUID();
+	}
+
+}
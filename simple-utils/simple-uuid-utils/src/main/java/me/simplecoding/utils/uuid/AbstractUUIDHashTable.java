@@ -0,0 +1,181 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing (linear probing) table storing UUID keys as msb/lsb pairs in
+ * parallel {@code long[]} arrays. The all-zero slot marks an empty bucket, so
+ * the nil UUID is tracked by a separate flag.
+ */
+abstract class AbstractUUIDHashTable {
+
+	static final int DEFAULT_EXPECTED_SIZE = 16;
+	static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	static final int MAX_CAPACITY = 1 << 30;
+
+	static final int hash(long msb, long lsb) {
+		long h = msb ^ Long.rotateLeft(lsb, 32);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	static final int tableSize(int expectedSize, float loadFactor) {
+		long capacity = Math.max(2, (long) Math.ceil(expectedSize / loadFactor));
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Expected size " + expectedSize + " is too large");
+		}
+		return Integer.highestOneBit((int) capacity - 1) << 1;
+	}
+
+	final float loadFactor;
+	long[] msbs;
+	long[] lsbs;
+	int mask;
+	int threshold;
+	int size;
+	boolean containsNil;
+
+	AbstractUUIDHashTable(int expectedSize, float loadFactor) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+		}
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+		}
+		this.loadFactor = loadFactor;
+		allocate(tableSize(expectedSize, loadFactor));
+	}
+
+	private void allocate(int capacity) {
+		msbs = new long[capacity];
+		lsbs = new long[capacity];
+		mask = capacity - 1;
+		threshold = (int) Math.min(capacity - 1, (long) (capacity * loadFactor));
+	}
+
+	public int size() {
+		return containsNil ? size + 1 : size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(UUID uuid) {
+		return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public boolean contains(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			return containsNil;
+		}
+		return find(msb, lsb) >= 0;
+	}
+
+	// returns the slot of the key, or -(insertion slot + 1) if absent
+	final int find(long msb, long lsb) {
+		long[] msbs = this.msbs;
+		long[] lsbs = this.lsbs;
+		int mask = this.mask;
+		for (int i = hash(msb, lsb) & mask;; i = (i + 1) & mask) {
+			long m = msbs[i];
+			long l = lsbs[i];
+			if (m == msb && l == lsb) {
+				return i;
+			}
+			if (m == 0 && l == 0) {
+				return -(i + 1);
+			}
+		}
+	}
+
+	// stores the key at an empty slot returned by find, returns the slot actually used
+	final int insertAt(int slot, long msb, long lsb) {
+		// checked first, a full table is left unchanged
+		int capacity = size + 1 > threshold ? grownCapacity(msbs.length) : 0;
+		msbs[slot] = msb;
+		lsbs[slot] = lsb;
+		size++;
+		if (capacity != 0) {
+			rehash(capacity);
+			return find(msb, lsb);
+		}
+		return slot;
+	}
+
+	// doubling MAX_CAPACITY would overflow
+	static final int grownCapacity(int length) {
+		if (length >= MAX_CAPACITY) {
+			throw new IllegalStateException("UUID hash table is full");
+		}
+		return length << 1;
+	}
+
+	final void removeAt(int slot) {
+		long[] msbs = this.msbs;
+		long[] lsbs = this.lsbs;
+		int mask = this.mask;
+		size--;
+		// backward shift deletion, no tombstones needed
+		int gap = slot;
+		for (int i = (slot + 1) & mask;; i = (i + 1) & mask) {
+			long m = msbs[i];
+			long l = lsbs[i];
+			if (m == 0 && l == 0) {
+				break;
+			}
+			int ideal = hash(m, l) & mask;
+			if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+				msbs[gap] = m;
+				lsbs[gap] = l;
+				moveSlot(i, gap);
+				gap = i;
+			}
+		}
+		msbs[gap] = 0;
+		lsbs[gap] = 0;
+		clearSlot(gap);
+	}
+
+	final void rehash(int capacity) {
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalStateException("UUID hash table is full");
+		}
+		long[] oldMsbs = msbs;
+		long[] oldLsbs = lsbs;
+		allocate(capacity);
+		beginRehash(capacity);
+		for (int i = 0; i < oldMsbs.length; i++) {
+			long m = oldMsbs[i];
+			long l = oldLsbs[i];
+			if (m != 0 || l != 0) {
+				int slot = -find(m, l) - 1;
+				msbs[slot] = m;
+				lsbs[slot] = l;
+				rehashSlot(i, slot);
+			}
+		}
+		endRehash();
+	}
+
+	void clearKeys() {
+		Arrays.fill(msbs, 0);
+		Arrays.fill(lsbs, 0);
+		size = 0;
+		containsNil = false;
+	}
+
+	abstract void moveSlot(int from, int to);
+
+	abstract void clearSlot(int slot);
+
+	abstract void beginRehash(int capacity);
+
+	abstract void rehashSlot(int from, int to);
+
+	abstract void endRehash();
+
+}
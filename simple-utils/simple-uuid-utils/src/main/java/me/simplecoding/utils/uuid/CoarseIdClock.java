@@ -0,0 +1,72 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link IdClock} returning a cached time that a daemon ticker thread
+ * refreshes every tick, reading it is a plain volatile load.
+ */
+public final class CoarseIdClock implements IdClock, AutoCloseable {
+
+	public static final long DEFAULT_TICK_MILLIS = 1;
+
+	public static final CoarseIdClock shared() {
+		return SharedHolder.shared;
+	}
+
+	private final long tickNanos;
+	private final Thread ticker;
+	private volatile long millis;
+	private volatile boolean running = true;
+
+	public CoarseIdClock() {
+		this(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	public CoarseIdClock(long tick, TimeUnit unit) {
+		if (tick <= 0) {
+			throw new IllegalArgumentException("Illegal tick: " + tick);
+		}
+		this.tickNanos = unit.toNanos(tick);
+		this.millis = System.currentTimeMillis();
+		this.ticker = new Thread(this::tick, "coarse-id-clock-ticker");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+
+	private void tick() {
+		while (running) {
+			LockSupport.parkNanos(this, tickNanos);
+			long now = System.currentTimeMillis();
+			if (now != millis) {
+				millis = now;
+			}
+		}
+	}
+
+	@Override
+	public long millis() {
+		return millis;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(ticker);
+	}
+
+	@Override
+	public String toString() {
+		return "CoarseIdClock[tickNanos=" + tickNanos + ", millis=" + millis + ", running=" + running + "]";
+	}
+
+	private static final class SharedHolder {
+		private static final CoarseIdClock shared = new CoarseIdClock();
+	}
+
+}
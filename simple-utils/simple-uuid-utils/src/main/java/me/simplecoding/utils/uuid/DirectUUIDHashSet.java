@@ -0,0 +1,206 @@
+package me.simplecoding.utils.uuid;
+
+import static me.simplecoding.utils.uuid.AbstractUUIDHashTable.hash;
+import static me.simplecoding.utils.uuid.AbstractUUIDHashTable.tableSize;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+/**
+ * Off-heap variant of {@link UUIDHashSet}, keys live in a direct buffer of
+ * 16 bytes per slot so they neither count towards the heap nor get scanned
+ * by the garbage collector.
+ */
+public class DirectUUIDHashSet {
+
+	// a direct buffer is indexed by int, 16 bytes per slot
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	private final float loadFactor;
+	private ByteBuffer table;
+	private int mask;
+	private int threshold;
+	private int size;
+	private boolean containsNil;
+
+	public DirectUUIDHashSet() {
+		this(AbstractUUIDHashTable.DEFAULT_EXPECTED_SIZE, AbstractUUIDHashTable.DEFAULT_LOAD_FACTOR);
+	}
+
+	public DirectUUIDHashSet(int expectedSize) {
+		this(expectedSize, AbstractUUIDHashTable.DEFAULT_LOAD_FACTOR);
+	}
+
+	public DirectUUIDHashSet(int expectedSize, float loadFactor) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+		}
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+		}
+		this.loadFactor = loadFactor;
+		int capacity = tableSize(expectedSize, loadFactor);
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Expected size " + expectedSize + " is too large");
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		table = ByteBuffer.allocateDirect(capacity << 4).order(ByteOrder.nativeOrder());
+		mask = capacity - 1;
+		threshold = (int) Math.min(capacity - 1, (long) (capacity * loadFactor));
+	}
+
+	public int size() {
+		return containsNil ? size + 1 : size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public long memoryUsage() {
+		return table.capacity();
+	}
+
+	public boolean contains(UUID uuid) {
+		return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public boolean contains(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			return containsNil;
+		}
+		return find(msb, lsb) >= 0;
+	}
+
+	public boolean add(UUID uuid) {
+		return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public boolean add(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			boolean added = !containsNil;
+			containsNil = true;
+			return added;
+		}
+		int slot = find(msb, lsb);
+		if (slot >= 0) {
+			return false;
+		}
+		slot = -slot - 1;
+		// checked before the key is stored, a full table stays as it was
+		int capacity = size + 1 > threshold ? grownCapacity(mask + 1) : 0;
+		table.putLong(slot << 4, msb);
+		table.putLong((slot << 4) + 8, lsb);
+		size++;
+		if (capacity != 0) {
+			rehash(capacity);
+		}
+		return true;
+	}
+
+	static final int grownCapacity(int capacity) {
+		if (capacity >= MAX_CAPACITY) {
+			throw new IllegalStateException("UUID hash table is full");
+		}
+		return capacity << 1;
+	}
+
+	public boolean remove(UUID uuid) {
+		return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public boolean remove(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			boolean removed = containsNil;
+			containsNil = false;
+			return removed;
+		}
+		int slot = find(msb, lsb);
+		if (slot < 0) {
+			return false;
+		}
+		ByteBuffer table = this.table;
+		int mask = this.mask;
+		size--;
+		// backward shift deletion
+		int gap = slot;
+		for (int i = (slot + 1) & mask;; i = (i + 1) & mask) {
+			long m = table.getLong(i << 4);
+			long l = table.getLong((i << 4) + 8);
+			if (m == 0 && l == 0) {
+				break;
+			}
+			int ideal = hash(m, l) & mask;
+			if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+				table.putLong(gap << 4, m);
+				table.putLong((gap << 4) + 8, l);
+				gap = i;
+			}
+		}
+		table.putLong(gap << 4, 0);
+		table.putLong((gap << 4) + 8, 0);
+		return true;
+	}
+
+	public void clear() {
+		ByteBuffer table = this.table;
+		for (int i = 0, limit = table.capacity(); i < limit; i += 8) {
+			table.putLong(i, 0);
+		}
+		size = 0;
+		containsNil = false;
+	}
+
+	public void forEach(UUIDHashSet.KeyConsumer action) {
+		if (containsNil) {
+			action.accept(0, 0);
+		}
+		ByteBuffer table = this.table;
+		for (int i = 0, limit = table.capacity(); i < limit; i += 16) {
+			long m = table.getLong(i);
+			long l = table.getLong(i + 8);
+			if (m != 0 || l != 0) {
+				action.accept(m, l);
+			}
+		}
+	}
+
+	private int find(long msb, long lsb) {
+		ByteBuffer table = this.table;
+		int mask = this.mask;
+		for (int i = hash(msb, lsb) & mask;; i = (i + 1) & mask) {
+			long m = table.getLong(i << 4);
+			long l = table.getLong((i << 4) + 8);
+			if (m == msb && l == lsb) {
+				return i;
+			}
+			if (m == 0 && l == 0) {
+				return -(i + 1);
+			}
+		}
+	}
+
+	private void rehash(int capacity) {
+		ByteBuffer old = table;
+		allocate(capacity);
+		for (int i = 0, limit = old.capacity(); i < limit; i += 16) {
+			long m = old.getLong(i);
+			long l = old.getLong(i + 8);
+			if (m != 0 || l != 0) {
+				int slot = -find(m, l) - 1;
+				table.putLong(slot << 4, m);
+				table.putLong((slot << 4) + 8, l);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DirectUUIDHashSet[size=" + size() + ", capacity=" + (mask + 1) + "]";
+	}
+
+}
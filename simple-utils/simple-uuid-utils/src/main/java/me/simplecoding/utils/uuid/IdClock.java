@@ -0,0 +1,17 @@
+package me.simplecoding.utils.uuid;
+
+/**
+ * Millisecond time source for UUID and ID generators.
+ * <p>
+ * Generators only read it at millisecond granularity and extend each
+ * millisecond with their own sequence counters, so a coarse clock that is
+ * cheaper to read than {@link System#currentTimeMillis()} loses nothing.
+ */
+@FunctionalInterface
+public interface IdClock {
+
+	IdClock SYSTEM = System::currentTimeMillis;
+
+	long millis();
+
+}
@@ -0,0 +1,36 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A deterministic {@link IdClock} that only moves when told to, for tests.
+ */
+public final class ManualIdClock implements IdClock {
+
+	private final AtomicLong millis;
+
+	public ManualIdClock(long millis) {
+		this.millis = new AtomicLong(millis);
+	}
+
+	@Override
+	public long millis() {
+		return millis.get();
+	}
+
+	public ManualIdClock set(long millis) {
+		this.millis.set(millis);
+		return this;
+	}
+
+	public ManualIdClock advance(long millis) {
+		this.millis.addAndGet(millis);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "ManualIdClock[millis=" + millis + "]";
+	}
+
+}
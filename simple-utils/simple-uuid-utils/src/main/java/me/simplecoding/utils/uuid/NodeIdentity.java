@@ -0,0 +1,289 @@
+package me.simplecoding.utils.uuid;
+
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The 48 bits node used by time based UUIDs and derived ID generators.
+ * <p>
+ * Resolved once, on first use, from the first of:
+ * <ol>
+ * <li>system property {@value #NODE_PROPERTY}</li>
+ * <li>environment variable {@value #NODE_ENV}</li>
+ * <li>the identity file named by {@value #NODE_FILE_PROPERTY} (or
+ * {@value #NODE_FILE_ENV}), if it exists</li>
+ * <li>network interface scanning, only when {@value #SCAN_PROPERTY} is
+ * {@code lazy} or {@code background}</li>
+ * <li>a random node with the multicast bit set</li>
+ * </ol>
+ * A resolved node is written to the identity file if one is configured but
+ * does not exist yet, so later starts skip resolution altogether. A random node
+ * used only because the background scan was still running is not written, the
+ * scanned one is once the scan completes.
+ */
+public final class NodeIdentity {
+
+	private static final Logger logger = LoggerFactory.getLogger(NodeIdentity.class);
+
+	public static final String NODE_PROPERTY = "me.simplecoding.uuid.node";
+	public static final String NODE_ENV = "SIMPLECODING_UUID_NODE";
+	public static final String NODE_FILE_PROPERTY = "me.simplecoding.uuid.nodeFile";
+	public static final String NODE_FILE_ENV = "SIMPLECODING_UUID_NODE_FILE";
+	public static final String SCAN_PROPERTY = "me.simplecoding.uuid.nodeScan";
+
+	public static final long NODE_MASK = 0x0000FFFFFFFFFFFFL;
+	// least significant bit of the first octet
+	public static final long MULTICAST_BIT = 0x0000010000000000L;
+
+	public enum Source {
+		PROPERTY, ENVIRONMENT, FILE, INTERFACE, LOCAL_HOST, RANDOM
+	}
+
+	private enum ScanMode {
+		NONE, LAZY, BACKGROUND
+	}
+
+	private static volatile CompletableFuture<NodeIdentity> backgroundScan;
+
+	public static final NodeIdentity current() {
+		return Holder.current;
+	}
+
+	/**
+	 * Starts the background interface scan if {@value #SCAN_PROPERTY} is
+	 * {@code background}, otherwise does nothing.
+	 */
+	public static final void prefetch() {
+		if (scanMode() == ScanMode.BACKGROUND && backgroundScan == null) {
+			synchronized (NodeIdentity.class) {
+				if (backgroundScan == null) {
+					CompletableFuture<NodeIdentity> future = new CompletableFuture<>();
+					Thread thread = new Thread(() -> future.complete(scan()), "uuid-node-scanner");
+					thread.setDaemon(true);
+					thread.start();
+					backgroundScan = future;
+				}
+			}
+		}
+	}
+
+	public static final long parseNode(String value) {
+		String hex = value.trim();
+		if (hex.startsWith("0x") || hex.startsWith("0X")) {
+			hex = hex.substring(2);
+		} else {
+			hex = hex.replace(":", "").replace("-", "");
+		}
+		if (hex.isEmpty() || hex.length() > 12) {
+			throw new IllegalArgumentException("Invalid node value: " + value);
+		}
+		try {
+			return Long.parseLong(hex, 16);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid node value: " + value);
+		}
+	}
+
+	public static final String formatNode(long node) {
+		StringBuilder b = new StringBuilder(17);
+		for (int shift = 40; shift >= 0; shift -= 8) {
+			int octet = (int) (node >>> shift) & 0xFF;
+			if (shift != 40) {
+				b.append(':');
+			}
+			b.append(Character.forDigit(octet >>> 4, 16)).append(Character.forDigit(octet & 0xF, 16));
+		}
+		return b.toString();
+	}
+
+	private static final ScanMode scanMode() {
+		String mode = System.getProperty(SCAN_PROPERTY);
+		if (mode == null) {
+			return ScanMode.NONE;
+		}
+		switch (mode.trim().toLowerCase()) {
+		case "lazy":
+		case "true":
+			return ScanMode.LAZY;
+		case "background":
+			return ScanMode.BACKGROUND;
+		default:
+			return ScanMode.NONE;
+		}
+	}
+
+	private static final NodeIdentity resolve() {
+		NodeIdentity identity = fromValue(System.getProperty(NODE_PROPERTY), Source.PROPERTY);
+		if (identity != null) {
+			return identity;
+		}
+		identity = fromValue(System.getenv(NODE_ENV), Source.ENVIRONMENT);
+		if (identity != null) {
+			return identity;
+		}
+		String file = System.getProperty(NODE_FILE_PROPERTY, System.getenv(NODE_FILE_ENV));
+		Path path = file == null || file.isEmpty() ? null : Paths.get(file);
+		if (path != null && Files.isRegularFile(path)) {
+			identity = fromFile(path);
+			if (identity != null) {
+				return identity;
+			}
+		}
+		boolean scanPending = false;
+		switch (scanMode()) {
+		case LAZY:
+			identity = scan();
+			break;
+		case BACKGROUND:
+			prefetch();
+			// never wait for the scan, fall back to a random node if it is not done yet
+			scanPending = !backgroundScan.isDone();
+			if (!scanPending) {
+				identity = backgroundScan.join();
+			}
+			break;
+		default:
+			break;
+		}
+		if (identity == null) {
+			identity = random();
+		}
+		if (path != null) {
+			if (scanPending) {
+				// the random node only stands in for this run, later starts read the scanned one
+				backgroundScan.thenAccept(scanned -> {
+					if (scanned != null) {
+						store(path, scanned);
+					}
+				});
+			} else {
+				store(path, identity);
+			}
+		}
+		return identity;
+	}
+
+	private static final NodeIdentity fromValue(String value, Source source) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+		try {
+			return new NodeIdentity(parseNode(value), source);
+		} catch (IllegalArgumentException e) {
+			logger.warn("Ignore invalid node value {} from {}.", value, source);
+			return null;
+		}
+	}
+
+	private static final NodeIdentity fromFile(Path path) {
+		try {
+			List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+			return lines.isEmpty() ? null : fromValue(lines.get(0), Source.FILE);
+		} catch (IOException e) {
+			logger.warn("Can't read node identity file {}.", path, e);
+			return null;
+		}
+	}
+
+	private static final void store(Path path, NodeIdentity identity) {
+		try {
+			Files.write(path, formatNode(identity.node).getBytes(StandardCharsets.UTF_8),
+					StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		} catch (FileAlreadyExistsException e) {
+			// written by another process in the meantime
+		} catch (IOException e) {
+			logger.warn("Can't write node identity file {}.", path, e);
+		}
+	}
+
+	private static final NodeIdentity random() {
+		long node = (ThreadLocalRandom.current().nextLong() ^ System.nanoTime()) & NODE_MASK;
+		return new NodeIdentity(node | MULTICAST_BIT, Source.RANDOM);
+	}
+
+	private static final NodeIdentity scan() {
+		byte[] address = null;
+		try {
+			Enumeration<NetworkInterface> ifs = NetworkInterface.getNetworkInterfaces();
+			if (ifs != null) {
+				while (ifs.hasMoreElements()) {
+					NetworkInterface iface = ifs.nextElement();
+					byte[] hardware = iface.getHardwareAddress();
+					if (hardware != null && hardware.length == 6 && hardware[1] != (byte) 0xff) {
+						address = hardware;
+						break;
+					}
+				}
+			}
+		} catch (Exception e) {
+			// ignore
+		}
+		long node;
+		if (nonNull(address)) {
+			node = (address[0] & 0xffL) << 40;
+			node |= (address[1] & 0xffL) << 32;
+			node |= (address[2] & 0xffL) << 24;
+			node |= (address[3] & 0xffL) << 16;
+			node |= (address[4] & 0xffL) << 8;
+			node |= address[5] & 0xffL;
+			return new NodeIdentity(node, Source.INTERFACE);
+		}
+		try {
+			address = InetAddress.getLocalHost().getAddress();
+			node = (address[0] & 0xFFL) << 24;
+			node |= (address[1] & 0xFFL) << 16;
+			node |= (address[2] & 0xFFL) << 8;
+			node |= address[3] & 0xFFL;
+			return new NodeIdentity(node, Source.LOCAL_HOST);
+		} catch (UnknownHostException e) {
+			logger.warn("Can't get node info from network interfaces, use a random node.");
+			return null;
+		}
+	}
+
+	private final long node;
+	private final Source source;
+
+	private NodeIdentity(long node, Source source) {
+		this.node = node & NODE_MASK;
+		this.source = source;
+	}
+
+	public long node() {
+		return node;
+	}
+
+	public Source source() {
+		return source;
+	}
+
+	@Override
+	public String toString() {
+		return "NodeIdentity[node=" + formatNode(node) + ", source=" + source + "]";
+	}
+
+	private static final class Holder {
+		private static final NodeIdentity current = resolve();
+		static {
+			logger.debug("Resolved UUID node identity {}.", current);
+		}
+	}
+
+}
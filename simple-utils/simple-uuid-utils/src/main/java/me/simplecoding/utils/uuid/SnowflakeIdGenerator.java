@@ -0,0 +1,204 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class SnowflakeIdGenerator {
+
+	// 2018-01-01T00:00:00Z
+	public static final long DEFAULT_EPOCH = 1514764800000L;
+
+	public static final int DEFAULT_TIMESTAMP_BITS = 41;
+	public static final int DEFAULT_NODE_BITS = 10;
+	public static final int DEFAULT_SEQUENCE_BITS = 12;
+
+	private final long epoch;
+	private final int timestampBits;
+	private final int nodeBits;
+	private final int sequenceBits;
+	private final long nodeId;
+	private final long maxTimestamp;
+	private final long sequenceMask;
+	private final int timestampShift;
+	private final long nodePart;
+	private final IdClock clock;
+	// (timestamp << sequenceBits) | sequence of the last generated ID
+	private final AtomicLong state = new AtomicLong();
+
+	private SnowflakeIdGenerator(long epoch, int timestampBits, int nodeBits, int sequenceBits, long nodeId,
+			IdClock clock) {
+		this.epoch = epoch;
+		this.timestampBits = timestampBits;
+		this.nodeBits = nodeBits;
+		this.sequenceBits = sequenceBits;
+		this.nodeId = nodeId;
+		this.maxTimestamp = (1L << timestampBits) - 1;
+		this.sequenceMask = (1L << sequenceBits) - 1;
+		this.timestampShift = nodeBits + sequenceBits;
+		this.nodePart = nodeId << sequenceBits;
+		this.clock = clock;
+	}
+
+	public long nextId() {
+		for (;;) {
+			long current = state.get();
+			long lastTimestamp = current >>> sequenceBits;
+			long timestamp = clock.millis() - epoch;
+			long next;
+			// checked before shifting, a wide sequence field would push the overflowed bits out of the state
+			if (timestamp > lastTimestamp) {
+				if (timestamp > maxTimestamp) {
+					throw timestampOverflow();
+				}
+				next = timestamp << sequenceBits;
+			} else if ((current & sequenceMask) != sequenceMask) {
+				// same millisecond, or the clock moved backwards: keep counting on the last timestamp
+				next = current + 1;
+			} else {
+				// sequence exhausted, borrow the next millisecond
+				if (lastTimestamp >= maxTimestamp) {
+					throw timestampOverflow();
+				}
+				next = (lastTimestamp + 1) << sequenceBits;
+			}
+			if (state.compareAndSet(current, next)) {
+				return ((next >>> sequenceBits) << timestampShift) | nodePart | (next & sequenceMask);
+			}
+		}
+	}
+
+	private IllegalStateException timestampOverflow() {
+		return new IllegalStateException(
+				"Timestamp overflow, the " + timestampBits + " bits timestamp since epoch " + epoch + " is exhausted");
+	}
+
+	public long epoch() {
+		return epoch;
+	}
+
+	public int timestampBits() {
+		return timestampBits;
+	}
+
+	public int nodeBits() {
+		return nodeBits;
+	}
+
+	public int sequenceBits() {
+		return sequenceBits;
+	}
+
+	public long nodeId() {
+		return nodeId;
+	}
+
+	public IdClock clock() {
+		return clock;
+	}
+
+	public long timestamp(long id) {
+		return (id >>> timestampShift) + epoch;
+	}
+
+	public long nodeId(long id) {
+		return (id >>> sequenceBits) & ((1L << nodeBits) - 1);
+	}
+
+	public long sequence(long id) {
+		return id & sequenceMask;
+	}
+
+	@Override
+	public String toString() {
+		return "SnowflakeIdGenerator[epoch=" + epoch + ", timestampBits=" + timestampBits + ", nodeBits=" + nodeBits
+				+ ", sequenceBits=" + sequenceBits + ", nodeId=" + nodeId + "]";
+	}
+
+	static final long foldNode(long node, int nodeBits) {
+		if (nodeBits == 0) {
+			return 0;
+		}
+		long mask = (1L << nodeBits) - 1;
+		long folded = 0;
+		for (long n = node; n != 0; n >>>= nodeBits) {
+			folded ^= n & mask;
+		}
+		return folded;
+	}
+
+	public static final class Builder {
+
+		public static final Builder newInstance() {
+			return new Builder();
+		}
+
+		private long epoch = DEFAULT_EPOCH;
+		private int timestampBits = DEFAULT_TIMESTAMP_BITS;
+		private int nodeBits = DEFAULT_NODE_BITS;
+		private int sequenceBits = DEFAULT_SEQUENCE_BITS;
+		private Long nodeId;
+		private IdClock clock = IdClock.SYSTEM;
+
+		private Builder() {
+		}
+
+		public Builder epoch(long epoch) {
+			this.epoch = epoch;
+			return this;
+		}
+
+		public Builder timestampBits(int timestampBits) {
+			this.timestampBits = timestampBits;
+			return this;
+		}
+
+		public Builder nodeBits(int nodeBits) {
+			this.nodeBits = nodeBits;
+			return this;
+		}
+
+		public Builder sequenceBits(int sequenceBits) {
+			this.sequenceBits = sequenceBits;
+			return this;
+		}
+
+		public Builder nodeId(long nodeId) {
+			this.nodeId = nodeId;
+			return this;
+		}
+
+		public Builder clock(IdClock clock) {
+			this.clock = clock;
+			return this;
+		}
+
+		public SnowflakeIdGenerator build() {
+			if (timestampBits < 1 || nodeBits < 0 || sequenceBits < 1) {
+				throw new IllegalArgumentException("Invalid bit widths: timestamp=" + timestampBits + ", node="
+						+ nodeBits + ", sequence=" + sequenceBits);
+			}
+			if (timestampBits + nodeBits + sequenceBits > 63) {
+				throw new IllegalArgumentException("Total bit width must not exceed 63 but was "
+						+ (timestampBits + nodeBits + sequenceBits));
+			}
+			if (clock == null) {
+				throw new IllegalArgumentException("Clock must not be null");
+			}
+			if (epoch > clock.millis()) {
+				throw new IllegalArgumentException("Epoch " + epoch + " is in the future");
+			}
+			long node;
+			if (nodeId == null) {
+				// derived from the same node identity UUIDUtils uses
+				node = foldNode(NodeIdentity.current().node(), nodeBits);
+			} else {
+				node = nodeId;
+				if (node < 0 || node >= (1L << nodeBits)) {
+					throw new IllegalArgumentException("Node ID " + node + " does not fit in " + nodeBits + " bits");
+				}
+			}
+			return new SnowflakeIdGenerator(epoch, timestampBits, nodeBits, sequenceBits, node, clock);
+		}
+
+	}
+
+}
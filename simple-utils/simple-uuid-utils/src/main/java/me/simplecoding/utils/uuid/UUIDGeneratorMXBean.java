@@ -0,0 +1,21 @@
+package me.simplecoding.utils.uuid;
+
+public interface UUIDGeneratorMXBean {
+
+	String OBJECT_NAME = "me.simplecoding.utils.uuid:type=UUIDGenerator";
+
+	long getGenerated();
+
+	long getSequenceIncrements();
+
+	long getSequenceWraps();
+
+	long getClockRegressions();
+
+	long getTimestampBorrows();
+
+	long getContendedLocks();
+
+	long getLockWaitNanos();
+
+}
@@ -0,0 +1,40 @@
+package me.simplecoding.utils.uuid;
+
+final class UUIDGeneratorMXBeanImpl implements UUIDGeneratorMXBean {
+
+	@Override
+	public long getGenerated() {
+		return UUIDUtils.metrics().generated();
+	}
+
+	@Override
+	public long getSequenceIncrements() {
+		return UUIDUtils.metrics().sequenceIncrements();
+	}
+
+	@Override
+	public long getSequenceWraps() {
+		return UUIDUtils.metrics().sequenceWraps();
+	}
+
+	@Override
+	public long getClockRegressions() {
+		return UUIDUtils.metrics().clockRegressions();
+	}
+
+	@Override
+	public long getTimestampBorrows() {
+		return UUIDUtils.metrics().timestampBorrows();
+	}
+
+	@Override
+	public long getContendedLocks() {
+		return UUIDUtils.metrics().contendedLocks();
+	}
+
+	@Override
+	public long getLockWaitNanos() {
+		return UUIDUtils.metrics().lockWaitNanos();
+	}
+
+}
@@ -0,0 +1,75 @@
+package me.simplecoding.utils.uuid;
+
+/**
+ * A consistent snapshot of the {@link UUIDUtils} generator counters.
+ */
+public final class UUIDGeneratorMetrics {
+
+	private final long generated;
+	private final long sequenceIncrements;
+	private final long sequenceWraps;
+	private final long clockRegressions;
+	private final long timestampBorrows;
+	private final long contendedLocks;
+	private final long lockWaitNanos;
+
+	UUIDGeneratorMetrics(long generated, long sequenceIncrements, long sequenceWraps, long clockRegressions,
+			long timestampBorrows, long contendedLocks, long lockWaitNanos) {
+		this.generated = generated;
+		this.sequenceIncrements = sequenceIncrements;
+		this.sequenceWraps = sequenceWraps;
+		this.clockRegressions = clockRegressions;
+		this.timestampBorrows = timestampBorrows;
+		this.contendedLocks = contendedLocks;
+		this.lockWaitNanos = lockWaitNanos;
+	}
+
+	// time based UUIDs generated (versions 1, 6 and 7)
+	public long generated() {
+		return generated;
+	}
+
+	// clock sequence increments because all 100ns ticks of a millisecond were used
+	public long sequenceIncrements() {
+		return sequenceIncrements;
+	}
+
+	// clock sequence wraps from 0x3fff back to 0
+	public long sequenceWraps() {
+		return sequenceWraps;
+	}
+
+	// clock reads that returned less than the previous read
+	public long clockRegressions() {
+		return clockRegressions;
+	}
+
+	// version 7 counter overflows that borrowed the next millisecond
+	public long timestampBorrows() {
+		return timestampBorrows;
+	}
+
+	// generator lock acquisitions that had to wait
+	public long contendedLocks() {
+		return contendedLocks;
+	}
+
+	public long lockWaitNanos() {
+		return lockWaitNanos;
+	}
+
+	public UUIDGeneratorMetrics minus(UUIDGeneratorMetrics previous) {
+		return new UUIDGeneratorMetrics(generated - previous.generated,
+				sequenceIncrements - previous.sequenceIncrements, sequenceWraps - previous.sequenceWraps,
+				clockRegressions - previous.clockRegressions, timestampBorrows - previous.timestampBorrows,
+				contendedLocks - previous.contendedLocks, lockWaitNanos - previous.lockWaitNanos);
+	}
+
+	@Override
+	public String toString() {
+		return "UUIDGeneratorMetrics[generated=" + generated + ", sequenceIncrements=" + sequenceIncrements
+				+ ", sequenceWraps=" + sequenceWraps + ", clockRegressions=" + clockRegressions + ", timestampBorrows="
+				+ timestampBorrows + ", contendedLocks=" + contendedLocks + ", lockWaitNanos=" + lockWaitNanos + "]";
+	}
+
+}
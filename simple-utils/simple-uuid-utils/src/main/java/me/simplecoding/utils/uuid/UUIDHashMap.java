@@ -0,0 +1,166 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+@SuppressWarnings("unchecked")
+public class UUIDHashMap<V> extends AbstractUUIDHashTable {
+
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+
+		void accept(long msb, long lsb, V value);
+
+	}
+
+	private Object[] values;
+	private V nilValue;
+	private Object[] rehashValues;
+
+	public UUIDHashMap() {
+		this(DEFAULT_EXPECTED_SIZE, DEFAULT_LOAD_FACTOR);
+	}
+
+	public UUIDHashMap(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	public UUIDHashMap(int expectedSize, float loadFactor) {
+		super(expectedSize, loadFactor);
+		values = new Object[msbs.length];
+	}
+
+	public V get(UUID key) {
+		return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+	}
+
+	public V get(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			return nilValue;
+		}
+		int slot = find(msb, lsb);
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	public V getOrDefault(long msb, long lsb, V defaultValue) {
+		V value = get(msb, lsb);
+		return value == null ? defaultValue : value;
+	}
+
+	public boolean containsKey(UUID key) {
+		return contains(key);
+	}
+
+	public boolean containsKey(long msb, long lsb) {
+		return contains(msb, lsb);
+	}
+
+	public V put(UUID key, V value) {
+		return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+	}
+
+	public V put(long msb, long lsb, V value) {
+		Objects.requireNonNull(value, "value");
+		if (msb == 0 && lsb == 0) {
+			V old = nilValue;
+			nilValue = value;
+			containsNil = true;
+			return old;
+		}
+		int slot = find(msb, lsb);
+		if (slot >= 0) {
+			V old = (V) values[slot];
+			values[slot] = value;
+			return old;
+		}
+		// set once the key is in, a full table throws without leaving the value behind, and a rehash replaces values
+		slot = insertAt(-slot - 1, msb, lsb);
+		values[slot] = value;
+		return null;
+	}
+
+	public V putIfAbsent(long msb, long lsb, V value) {
+		V old = get(msb, lsb);
+		return old == null ? put(msb, lsb, value) : old;
+	}
+
+	public V remove(UUID key) {
+		return remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+	}
+
+	public V remove(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			V old = nilValue;
+			nilValue = null;
+			containsNil = false;
+			return old;
+		}
+		int slot = find(msb, lsb);
+		if (slot < 0) {
+			return null;
+		}
+		V old = (V) values[slot];
+		removeAt(slot);
+		return old;
+	}
+
+	public void clear() {
+		clearKeys();
+		Arrays.fill(values, null);
+		nilValue = null;
+	}
+
+	public void forEach(EntryConsumer<? super V> action) {
+		if (containsNil) {
+			action.accept(0, 0, nilValue);
+		}
+		long[] msbs = this.msbs;
+		long[] lsbs = this.lsbs;
+		Object[] values = this.values;
+		for (int i = 0; i < msbs.length; i++) {
+			if (msbs[i] != 0 || lsbs[i] != 0) {
+				action.accept(msbs[i], lsbs[i], (V) values[i]);
+			}
+		}
+	}
+
+	@Override
+	void moveSlot(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	void clearSlot(int slot) {
+		values[slot] = null;
+	}
+
+	@Override
+	void beginRehash(int capacity) {
+		rehashValues = values;
+		values = new Object[capacity];
+	}
+
+	@Override
+	void rehashSlot(int from, int to) {
+		values[to] = rehashValues[from];
+	}
+
+	@Override
+	void endRehash() {
+		rehashValues = null;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("{");
+		forEach((msb, lsb, v) -> {
+			if (b.length() > 1) {
+				b.append(", ");
+			}
+			b.append(new UUID(msb, lsb)).append('=').append(v);
+		});
+		return b.append('}').toString();
+	}
+
+}
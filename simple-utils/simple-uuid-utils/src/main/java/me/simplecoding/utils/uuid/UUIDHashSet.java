@@ -0,0 +1,116 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.UUID;
+
+public class UUIDHashSet extends AbstractUUIDHashTable {
+
+	@FunctionalInterface
+	public interface KeyConsumer {
+
+		void accept(long msb, long lsb);
+
+	}
+
+	public UUIDHashSet() {
+		this(DEFAULT_EXPECTED_SIZE, DEFAULT_LOAD_FACTOR);
+	}
+
+	public UUIDHashSet(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	public UUIDHashSet(int expectedSize, float loadFactor) {
+		super(expectedSize, loadFactor);
+	}
+
+	public boolean add(UUID uuid) {
+		return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public boolean add(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			boolean added = !containsNil;
+			containsNil = true;
+			return added;
+		}
+		int slot = find(msb, lsb);
+		if (slot >= 0) {
+			return false;
+		}
+		insertAt(-slot - 1, msb, lsb);
+		return true;
+	}
+
+	public boolean remove(UUID uuid) {
+		return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public boolean remove(long msb, long lsb) {
+		if (msb == 0 && lsb == 0) {
+			boolean removed = containsNil;
+			containsNil = false;
+			return removed;
+		}
+		int slot = find(msb, lsb);
+		if (slot < 0) {
+			return false;
+		}
+		removeAt(slot);
+		return true;
+	}
+
+	public void clear() {
+		clearKeys();
+	}
+
+	public void forEach(KeyConsumer action) {
+		if (containsNil) {
+			action.accept(0, 0);
+		}
+		long[] msbs = this.msbs;
+		long[] lsbs = this.lsbs;
+		for (int i = 0; i < msbs.length; i++) {
+			if (msbs[i] != 0 || lsbs[i] != 0) {
+				action.accept(msbs[i], lsbs[i]);
+			}
+		}
+	}
+
+	@Override
+	void moveSlot(int from, int to) {
+		// no values
+	}
+
+	@Override
+	void clearSlot(int slot) {
+		// no values
+	}
+
+	@Override
+	void beginRehash(int capacity) {
+		// no values
+	}
+
+	@Override
+	void rehashSlot(int from, int to) {
+		// no values
+	}
+
+	@Override
+	void endRehash() {
+		// no values
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("[");
+		forEach((msb, lsb) -> {
+			if (b.length() > 1) {
+				b.append(", ");
+			}
+			b.append(new UUID(msb, lsb));
+		});
+		return b.append(']').toString();
+	}
+
+}
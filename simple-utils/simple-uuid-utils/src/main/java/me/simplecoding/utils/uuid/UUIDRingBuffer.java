@@ -0,0 +1,178 @@
+package me.simplecoding.utils.uuid;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a ring buffer of pre-generated UUIDs filled by a background thread,
+ * so callers only pay for a CAS. When the buffer is drained the UUID is
+ * generated inline on the caller's thread instead.
+ * <p>
+ * Single producer, multiple consumers: the producer publishes a slot by
+ * advancing {@code tail} after writing it, consumers claim slots by CAS on
+ * {@code head}. A slot is only rewritten once {@code head} has moved past it,
+ * so a consumer whose CAS succeeds has read the value it claimed.
+ */
+public final class UUIDRingBuffer implements Supplier<UUID>, AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private final Supplier<UUID> generator;
+	private final UUID[] slots;
+	private final int mask;
+	private final int lowWaterMark;
+	private final long idleParkNanos;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final Thread producer;
+	private volatile boolean running = true;
+
+	private UUIDRingBuffer(Supplier<UUID> generator, int capacity, int lowWaterMark, long idleParkNanos,
+			String threadName) {
+		this.generator = generator;
+		this.slots = new UUID[capacity];
+		this.mask = capacity - 1;
+		this.lowWaterMark = lowWaterMark;
+		this.idleParkNanos = idleParkNanos;
+		this.producer = new Thread(this::fill, threadName);
+		producer.setDaemon(true);
+		producer.start();
+	}
+
+	private void fill() {
+		UUID[] slots = this.slots;
+		while (running) {
+			long t = tail.get();
+			if (t - head.get() <= mask) {
+				slots[(int) t & mask] = generator.get();
+				tail.lazySet(t + 1);
+			} else {
+				// full, wait for consumers to reach the low water mark
+				LockSupport.parkNanos(this, idleParkNanos);
+			}
+		}
+	}
+
+	@Override
+	public UUID get() {
+		for (;;) {
+			long h = head.get();
+			long t = tail.get();
+			if (h >= t) {
+				misses.increment();
+				return generator.get();
+			}
+			UUID uuid = slots[(int) h & mask];
+			if (head.compareAndSet(h, h + 1)) {
+				if (t - h - 1 == lowWaterMark) {
+					LockSupport.unpark(producer);
+				}
+				hits.increment();
+				return uuid;
+			}
+		}
+	}
+
+	public int capacity() {
+		return slots.length;
+	}
+
+	public int fillLevel() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	// UUIDs generated inline because the buffer was drained
+	public long missCount() {
+		return misses.sum();
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	// stops the background producer, the buffered UUIDs are still handed out
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(producer);
+	}
+
+	@Override
+	public String toString() {
+		return "UUIDRingBuffer[capacity=" + capacity() + ", fillLevel=" + fillLevel() + ", hits=" + hitCount()
+				+ ", misses=" + missCount() + ", running=" + running + "]";
+	}
+
+	public static final class Builder {
+
+		public static final Builder newInstance() {
+			return new Builder();
+		}
+
+		private Supplier<UUID> generator = UUIDUtils::uuid7;
+		private int capacity = DEFAULT_CAPACITY;
+		private int lowWaterMark = -1;
+		private long idleParkNanos = TimeUnit.MILLISECONDS.toNanos(1);
+		private String threadName = "uuid-ring-buffer-producer";
+
+		private Builder() {
+		}
+
+		public Builder generator(Supplier<UUID> generator) {
+			this.generator = generator;
+			return this;
+		}
+
+		// rounded up to a power of two
+		public Builder capacity(int capacity) {
+			this.capacity = capacity;
+			return this;
+		}
+
+		// the producer is woken up when the fill level drops to this, half the capacity by default
+		public Builder lowWaterMark(int lowWaterMark) {
+			this.lowWaterMark = lowWaterMark;
+			return this;
+		}
+
+		public Builder idlePark(long time, TimeUnit unit) {
+			this.idleParkNanos = unit.toNanos(time);
+			return this;
+		}
+
+		public Builder threadName(String threadName) {
+			this.threadName = threadName;
+			return this;
+		}
+
+		public UUIDRingBuffer build() {
+			if (generator == null) {
+				throw new IllegalArgumentException("Generator must not be null");
+			}
+			if (capacity < 2 || capacity > (1 << 30)) {
+				throw new IllegalArgumentException("Illegal capacity: " + capacity);
+			}
+			int size = Integer.highestOneBit(capacity - 1) << 1;
+			int mark = lowWaterMark < 0 ? size / 2 : lowWaterMark;
+			if (mark >= size) {
+				throw new IllegalArgumentException("Low water mark " + mark + " must be less than capacity " + size);
+			}
+			if (idleParkNanos <= 0) {
+				throw new IllegalArgumentException("Illegal idle park nanos: " + idleParkNanos);
+			}
+			return new UUIDRingBuffer(generator, size, mark, idleParkNanos, threadName);
+		}
+
+	}
+
+}
@@ -1,104 +1,201 @@
 package me.simplecoding.utils.uuid;
 
-import static java.util.Objects.nonNull;
-
-import java.net.InetAddress;
-import java.net.NetworkInterface;
-import java.net.UnknownHostException;
-import java.util.Enumeration;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public final class UUIDUtils {
 
-	private static final Logger logger = LoggerFactory.getLogger(UUIDUtils.class);
+	// offset between the gregorian epoch and the unix epoch in 100 nanoseconds
+	private static final long GREGORIAN_OFFSET = 0x01B21DD213814000L;
+
+	private static volatile IdClock clock = IdClock.SYSTEM;
+
+	private static final ReentrantLock lock = new ReentrantLock();
+
+	// guarded by lock
+	private static long clockSeq = System.nanoTime() & 0x3fff;
+	private static long lastMillis = 0;
+	private static long lastTicks = 0;
 
-	private static final long variantAndNode;
+	private static long lastUnixMillis = 0;
+	private static long counter = 0;
 
-	private static volatile long clockSeq = System.nanoTime() & 0x3fff;
-	private static volatile long lastMillis = System.currentTimeMillis();
-	private static volatile long baseNanos = System.nanoTime();
-	private static volatile long lastNanos100 = 0;
+	// metrics, guarded by lock as well so counting costs no volatile writes
+	private static long lastClockMillis = 0;
+	private static long generated = 0;
+	private static long sequenceIncrements = 0;
+	private static long sequenceWraps = 0;
+	private static long clockRegressions = 0;
+	private static long timestampBorrows = 0;
+	private static long contendedLocks = 0;
+	private static long lockWaitNanos = 0;
 
 	static {
-		long variant = 0x8000000000000000L;
-		byte[] address = null;
-		try {
-			Enumeration<NetworkInterface> ifs = NetworkInterface.getNetworkInterfaces();
-			if (ifs != null) {
-				while (ifs.hasMoreElements()) {
-					NetworkInterface iface = ifs.nextElement();
-					byte[] hardware = iface.getHardwareAddress();
-					if (hardware != null && hardware.length == 6 && hardware[1] != (byte) 0xff) {
-						address = hardware;
-						break;
-					}
-				}
-			}
-		} catch (Exception e) {
-			// ignore
-		}
-		long node;
-		if (nonNull(address)) {
-			node = (address[0] & 0xffL) << 40;
-			node |= (address[1] & 0xffL) << 32;
-			node |= (address[2] & 0xffL) << 24;
-			node |= (address[3] & 0xffL) << 16;
-			node |= (address[4] & 0xffL) << 8;
-			node |= address[5] & 0xffL;
-		} else {
-			try {
-				address = InetAddress.getLocalHost().getAddress();
-				node = (address[0] & 0xFFL) << 24;
-				node |= (address[1] & 0xFFL) << 16;
-				node |= (address[2] & 0xFFL) << 8;
-				node |= address[3] & 0xFFL;
-			} catch (UnknownHostException e) {
-				node = System.nanoTime() & 0x7fffffff;
-				logger.warn("Can't get node info, use nano time based node value {}.", node);
-			}
-		}
-		variantAndNode = (variant | node);
+		// only starts the opt-in background interface scan, the node itself is resolved on first use
+		NodeIdentity.prefetch();
 	}
 
 	private static final Pattern hexPattern = Pattern.compile("[0-9a-fA-F]+");
 
 	public static final UUID uuid1() {
-		long utc = utcTime();
-		// version 1
-		long mostSigBits = 0x0000000000001000L;
-		// time low
-		mostSigBits |= utc << 32;
-		// time mid
-		mostSigBits |= (utc & 0xFFFF00000000L) >> 16;
-		// time hi and version
-		mostSigBits |= (utc >>> 48) & 0x0FFF;
-		long leastSigBits = variantAndNode | (clockSeq << 48);
+		long variantAndNode = NodeHolder.variantAndNode;
+		long mostSigBits;
+		long leastSigBits;
+		lock();
+		try {
+			long utc = utcTime();
+			// version 1
+			mostSigBits = 0x0000000000001000L;
+			// time low
+			mostSigBits |= utc << 32;
+			// time mid
+			mostSigBits |= (utc & 0xFFFF00000000L) >> 16;
+			// time hi and version
+			mostSigBits |= (utc >>> 48) & 0x0FFF;
+			leastSigBits = variantAndNode | (clockSeq << 48);
+		} finally {
+			lock.unlock();
+		}
 		return new UUID(mostSigBits, leastSigBits);
 	}
 
-	private synchronized static final long utcTime() {
-		long millis = System.currentTimeMillis();
+	public static final UUID uuid6() {
+		long variantAndNode = NodeHolder.variantAndNode;
+		long mostSigBits;
+		long leastSigBits;
+		lock();
+		try {
+			long utc = utcTime();
+			// time high and time mid
+			mostSigBits = (utc << 4) & 0xFFFFFFFFFFFF0000L;
+			// version 6
+			mostSigBits |= 0x0000000000006000L;
+			// time low
+			mostSigBits |= utc & 0x0FFF;
+			leastSigBits = variantAndNode | (clockSeq << 48);
+		} finally {
+			lock.unlock();
+		}
+		return new UUID(mostSigBits, leastSigBits);
+	}
+
+	public static final UUID uuid7() {
+		long random = ThreadLocalRandom.current().nextLong();
+		long millis;
+		long sequence;
+		lock();
+		try {
+			long now = readClock();
+			if (now > lastUnixMillis) {
+				lastUnixMillis = now;
+				// seed the counter in the lower half so it has room to grow, from a separate draw as every bit
+				// of random but the top two goes to rand_b
+				counter = ThreadLocalRandom.current().nextInt(0x0800);
+			} else if (++counter > 0x0FFF) {
+				// counter exhausted (or clock moved backwards), borrow the next millisecond
+				lastUnixMillis++;
+				counter = 0;
+				timestampBorrows++;
+			}
+			millis = lastUnixMillis;
+			sequence = counter;
+		} finally {
+			lock.unlock();
+		}
+		// unix_ts_ms, version 7 and rand_a (monotonic counter)
+		long mostSigBits = (millis << 16) | 0x7000L | sequence;
+		// variant and rand_b
+		long leastSigBits = 0x8000000000000000L | (random & 0x3FFFFFFFFFFFFFFFL);
+		return new UUID(mostSigBits, leastSigBits);
+	}
+
+	private static final void lock() {
+		if (!lock.tryLock()) {
+			// only contended acquisitions pay for timing
+			long start = System.nanoTime();
+			lock.lock();
+			contendedLocks++;
+			lockWaitNanos += System.nanoTime() - start;
+		}
+	}
+
+	// caller must hold lock
+	private static final long readClock() {
+		long millis = clock.millis();
+		if (millis < lastClockMillis) {
+			clockRegressions++;
+		}
+		lastClockMillis = millis;
+		generated++;
+		return millis;
+	}
+
+	// caller must hold lock
+	private static final long utcTime() {
+		long millis = readClock();
 		if (millis > lastMillis) {
-			baseNanos = System.nanoTime();
-			lastNanos100 = 0;
+			lastTicks = 0;
 			lastMillis = millis;
+		} else if (lastTicks < 9999) {
+			// the same millisecond (or the clock moved backwards), count on in 100 nanoseconds ticks
+			lastTicks++;
 		} else {
-			long nano = System.nanoTime();
-			long nanos100 = Math.min(9999, (nano - baseNanos) / 100);
-			if (lastNanos100 == nanos100) {
-				clockSeq++;
-				if (clockSeq == 0x4000) {
-					clockSeq = 0;
-				}
-			} else {
-				lastNanos100 = nanos100;
+			sequenceIncrements++;
+			clockSeq++;
+			if (clockSeq == 0x4000) {
+				clockSeq = 0;
+				sequenceWraps++;
 			}
 		}
-		return lastMillis * 10000 + 0x01B21DD213814000L + lastNanos100;
+		return lastMillis * 10000 + GREGORIAN_OFFSET + lastTicks;
+	}
+
+	public static final UUIDGeneratorMetrics metrics() {
+		lock.lock();
+		try {
+			return new UUIDGeneratorMetrics(generated, sequenceIncrements, sequenceWraps, clockRegressions,
+					timestampBorrows, contendedLocks, lockWaitNanos);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public static final ObjectName registerMBean() {
+		try {
+			ObjectName name = new ObjectName(UUIDGeneratorMXBean.OBJECT_NAME);
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new UUIDGeneratorMXBeanImpl(), name);
+			} catch (InstanceAlreadyExistsException e) {
+				// already registered
+			}
+			return name;
+		} catch (JMException e) {
+			throw new IllegalStateException("Can't register UUID generator MBean", e);
+		}
+	}
+
+	public static final IdClock clock() {
+		return clock;
+	}
+
+	public static final void clock(IdClock clock) {
+		UUIDUtils.clock = Objects.requireNonNull(clock, "clock");
 	}
 
 	public static final String toHexString(UUID uuid) {
@@ -116,6 +213,14 @@ public final class UUIDUtils {
 		return toHexString(uuid1());
 	}
 
+	public static final String uuid6Hex() {
+		return toHexString(uuid6());
+	}
+
+	public static final String uuid7Hex() {
+		return toHexString(uuid7());
+	}
+
 	private static final String digits(long val, int digits) {
 		long hi = 1L << (digits * 4);
 		return Long.toHexString(hi | (val & (hi - 1))).substring(1);
@@ -143,6 +248,508 @@ public final class UUIDUtils {
 		return new UUID(mostSigBits, leastSigBits);
 	}
 
+	public static final int BYTES = 16;
+
+	private static final void putLong(byte[] dst, int offset, long value) {
+		dst[offset] = (byte) (value >>> 56);
+		dst[offset + 1] = (byte) (value >>> 48);
+		dst[offset + 2] = (byte) (value >>> 40);
+		dst[offset + 3] = (byte) (value >>> 32);
+		dst[offset + 4] = (byte) (value >>> 24);
+		dst[offset + 5] = (byte) (value >>> 16);
+		dst[offset + 6] = (byte) (value >>> 8);
+		dst[offset + 7] = (byte) value;
+	}
+
+	private static final long getLong(byte[] src, int offset) {
+		return ((src[offset] & 0xFFL) << 56) | ((src[offset + 1] & 0xFFL) << 48) | ((src[offset + 2] & 0xFFL) << 40)
+				| ((src[offset + 3] & 0xFFL) << 32) | ((src[offset + 4] & 0xFFL) << 24)
+				| ((src[offset + 5] & 0xFFL) << 16) | ((src[offset + 6] & 0xFFL) << 8) | (src[offset + 7] & 0xFFL);
+	}
+
+	// the binary form is always big-endian, whatever order the buffer is set to
+	private static final long bigEndian(ByteBuffer buffer, long value) {
+		return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+	}
+
+	public static final byte[] toBytes(UUID uuid) {
+		byte[] bytes = new byte[BYTES];
+		toBytes(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), bytes, 0);
+		return bytes;
+	}
+
+	public static final void toBytes(UUID uuid, byte[] dst, int offset) {
+		toBytes(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), dst, offset);
+	}
+
+	public static final void toBytes(long mostSigBits, long leastSigBits, byte[] dst, int offset) {
+		if (offset < 0 || offset > dst.length - BYTES) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + dst.length);
+		}
+		putLong(dst, offset, mostSigBits);
+		putLong(dst, offset + 8, leastSigBits);
+	}
+
+	public static final UUID fromBytes(byte[] src, int offset) {
+		if (offset < 0 || offset > src.length - BYTES) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + src.length);
+		}
+		return new UUID(getLong(src, offset), getLong(src, offset + 8));
+	}
+
+	public static final void toBytes(UUID uuid, ByteBuffer dst) {
+		if (dst.remaining() < BYTES) {
+			throw new BufferOverflowException();
+		}
+		toBytes(uuid, dst, dst.position());
+		dst.position(dst.position() + BYTES);
+	}
+
+	public static final void toBytes(UUID uuid, ByteBuffer dst, int index) {
+		dst.putLong(index, bigEndian(dst, uuid.getMostSignificantBits()));
+		dst.putLong(index + 8, bigEndian(dst, uuid.getLeastSignificantBits()));
+	}
+
+	public static final UUID fromBytes(ByteBuffer src) {
+		if (src.remaining() < BYTES) {
+			throw new BufferUnderflowException();
+		}
+		UUID uuid = fromBytes(src, src.position());
+		src.position(src.position() + BYTES);
+		return uuid;
+	}
+
+	public static final UUID fromBytes(ByteBuffer src, int index) {
+		return new UUID(bigEndian(src, src.getLong(index)), bigEndian(src, src.getLong(index + 8)));
+	}
+
+	public static final void write(UUID uuid, DataOutput out) throws IOException {
+		out.writeLong(uuid.getMostSignificantBits());
+		out.writeLong(uuid.getLeastSignificantBits());
+	}
+
+	public static final UUID read(DataInput in) throws IOException {
+		long mostSigBits = in.readLong();
+		return new UUID(mostSigBits, in.readLong());
+	}
+
+	private static final void checkBulk(int arrayLength, int arrayOffset, int bytesLength, int bytesOffset,
+			int count) {
+		if (count < 0 || arrayOffset < 0 || arrayOffset > arrayLength - count || bytesOffset < 0
+				|| bytesOffset > bytesLength - count * BYTES) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+
+	public static final void toBytes(UUID[] src, int srcOffset, byte[] dst, int dstOffset, int count) {
+		checkBulk(src.length, srcOffset, dst.length, dstOffset, count);
+		for (int i = 0; i < count; i++) {
+			UUID uuid = src[srcOffset + i];
+			putLong(dst, dstOffset, uuid.getMostSignificantBits());
+			putLong(dst, dstOffset + 8, uuid.getLeastSignificantBits());
+			dstOffset += BYTES;
+		}
+	}
+
+	public static final void fromBytes(byte[] src, int srcOffset, UUID[] dst, int dstOffset, int count) {
+		checkBulk(dst.length, dstOffset, src.length, srcOffset, count);
+		for (int i = 0; i < count; i++) {
+			dst[dstOffset + i] = new UUID(getLong(src, srcOffset), getLong(src, srcOffset + 8));
+			srcOffset += BYTES;
+		}
+	}
+
+	public static final void toBytes(long[] msbs, long[] lsbs, int srcOffset, byte[] dst, int dstOffset, int count) {
+		checkBulk(Math.min(msbs.length, lsbs.length), srcOffset, dst.length, dstOffset, count);
+		for (int i = srcOffset, end = srcOffset + count; i < end; i++) {
+			putLong(dst, dstOffset, msbs[i]);
+			putLong(dst, dstOffset + 8, lsbs[i]);
+			dstOffset += BYTES;
+		}
+	}
+
+	public static final void fromBytes(byte[] src, int srcOffset, long[] msbs, long[] lsbs, int dstOffset,
+			int count) {
+		checkBulk(Math.min(msbs.length, lsbs.length), dstOffset, src.length, srcOffset, count);
+		for (int i = dstOffset, end = dstOffset + count; i < end; i++) {
+			msbs[i] = getLong(src, srcOffset);
+			lsbs[i] = getLong(src, srcOffset + 8);
+			srcOffset += BYTES;
+		}
+	}
+
+	public static final void toBytes(UUID[] src, int offset, int count, ByteBuffer dst) {
+		checkBulk(src.length, offset, dst.remaining(), 0, count);
+		int index = dst.position();
+		for (int i = offset, end = offset + count; i < end; i++) {
+			toBytes(src[i], dst, index);
+			index += BYTES;
+		}
+		dst.position(index);
+	}
+
+	public static final void fromBytes(ByteBuffer src, UUID[] dst, int offset, int count) {
+		checkBulk(dst.length, offset, src.remaining(), 0, count);
+		int index = src.position();
+		for (int i = offset, end = offset + count; i < end; i++) {
+			dst[i] = fromBytes(src, index);
+			index += BYTES;
+		}
+		src.position(index);
+	}
+
+	public static final void toBytes(long[] msbs, long[] lsbs, int offset, int count, ByteBuffer dst) {
+		checkBulk(Math.min(msbs.length, lsbs.length), offset, dst.remaining(), 0, count);
+		int index = dst.position();
+		for (int i = offset, end = offset + count; i < end; i++) {
+			dst.putLong(index, bigEndian(dst, msbs[i]));
+			dst.putLong(index + 8, bigEndian(dst, lsbs[i]));
+			index += BYTES;
+		}
+		dst.position(index);
+	}
+
+	public static final void fromBytes(ByteBuffer src, long[] msbs, long[] lsbs, int offset, int count) {
+		checkBulk(Math.min(msbs.length, lsbs.length), offset, src.remaining(), 0, count);
+		int index = src.position();
+		for (int i = offset, end = offset + count; i < end; i++) {
+			msbs[i] = bigEndian(src, src.getLong(index));
+			lsbs[i] = bigEndian(src, src.getLong(index + 8));
+			index += BYTES;
+		}
+		src.position(index);
+	}
+
+	// version 1 time_low|time_mid|version+time_hi to version+time_hi|time_mid|time_low
+	public static final long toOrderedMostSigBits(long mostSigBits) {
+		return (mostSigBits << 48) | ((mostSigBits & 0x00000000FFFF0000L) << 16) | (mostSigBits >>> 32);
+	}
+
+	public static final long fromOrderedMostSigBits(long orderedMostSigBits) {
+		return (orderedMostSigBits << 32) | ((orderedMostSigBits >>> 16) & 0x00000000FFFF0000L)
+				| (orderedMostSigBits >>> 48);
+	}
+
+	/**
+	 * Swaps the time fields of a version 1 UUID so its binary form sorts by
+	 * creation time, the same layout as MySQL {@code UUID_TO_BIN(uuid, 1)}. The
+	 * result is a storage key, not a valid UUID, reverse it with
+	 * {@link #fromOrdered(UUID)}.
+	 */
+	public static final UUID toOrdered(UUID uuid) {
+		return new UUID(toOrderedMostSigBits(uuid.getMostSignificantBits()), uuid.getLeastSignificantBits());
+	}
+
+	public static final UUID fromOrdered(UUID ordered) {
+		return new UUID(fromOrderedMostSigBits(ordered.getMostSignificantBits()), ordered.getLeastSignificantBits());
+	}
+
+	public static final byte[] toOrderedBytes(UUID uuid) {
+		byte[] bytes = new byte[BYTES];
+		toOrderedBytes(uuid, bytes, 0);
+		return bytes;
+	}
+
+	public static final void toOrderedBytes(UUID uuid, byte[] dst, int offset) {
+		toBytes(toOrderedMostSigBits(uuid.getMostSignificantBits()), uuid.getLeastSignificantBits(), dst, offset);
+	}
+
+	public static final UUID fromOrderedBytes(byte[] src, int offset) {
+		if (offset < 0 || offset > src.length - BYTES) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + src.length);
+		}
+		return new UUID(fromOrderedMostSigBits(getLong(src, offset)), getLong(src, offset + 8));
+	}
+
+	public static final void toOrderedBytes(UUID uuid, ByteBuffer dst) {
+		toBytes(toOrdered(uuid), dst);
+	}
+
+	public static final UUID fromOrderedBytes(ByteBuffer src) {
+		return fromOrdered(fromBytes(src));
+	}
+
+	// 100 nanoseconds since 1582-10-15 of an ordered version 1 key
+	public static final long orderedTimestamp(long orderedMostSigBits) {
+		// time_hi|time_mid|time_low is the timestamp once the version is masked out
+		return orderedMostSigBits & 0x0FFFFFFFFFFFFFFFL;
+	}
+
+	public static final long orderedTimestamp(byte[] src, int offset) {
+		return orderedTimestamp(getLong(src, offset));
+	}
+
+	public static final long orderedUnixMillis(byte[] src, int offset) {
+		return (orderedTimestamp(src, offset) - GREGORIAN_OFFSET) / 10000;
+	}
+
+	/**
+	 * The smallest ordered key of a version 1 UUID generated at or after the
+	 * given time, use it as the inclusive lower bound (and for the end of the
+	 * range as the exclusive upper bound) of a time range key scan.
+	 */
+	public static final UUID orderedLowerBound(long unixMillis) {
+		long timestamp = unixMillis * 10000 + GREGORIAN_OFFSET;
+		return new UUID(0x1000000000000000L | timestamp, 0);
+	}
+
+	// 100 nanoseconds since 1582-10-15 of a version 1 or 6 UUID
+	public static final long timestamp(UUID uuid) {
+		long mostSigBits = uuid.getMostSignificantBits();
+		switch (uuid.version()) {
+		case 1:
+			return orderedTimestamp(toOrderedMostSigBits(mostSigBits));
+		case 6:
+			return ((mostSigBits >>> 4) & 0x0FFFFFFFFFFFF000L) | (mostSigBits & 0x0FFF);
+		default:
+			throw new UnsupportedOperationException("Not a version 1 or 6 UUID");
+		}
+	}
+
+	public static final long unixMillis(UUID uuid) {
+		if (uuid.version() == 7) {
+			return uuid.getMostSignificantBits() >>> 16;
+		}
+		return (timestamp(uuid) - GREGORIAN_OFFSET) / 10000;
+	}
+
+	public static final int clockSequence(UUID uuid) {
+		int version = uuid.version();
+		if (version != 1 && version != 6) {
+			throw new UnsupportedOperationException("Not a version 1 or 6 UUID");
+		}
+		return (int) (uuid.getLeastSignificantBits() >>> 48) & 0x3FFF;
+	}
+
+	public static final int BASE64_LENGTH = 22;
+	public static final int BASE62_LENGTH = 22;
+
+	private static final char[] base64Digits = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+			.toCharArray();
+	// in ASCII order, so fixed width base62 strings sort like the UUID values they encode
+	private static final char[] base62Digits = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"
+			.toCharArray();
+	private static final long BASE62_POW5 = 62L * 62 * 62 * 62 * 62;
+	private static final byte[] base64Values = digitValues(base64Digits);
+	private static final byte[] base62Values = digitValues(base62Digits);
+
+	private static final byte[] digitValues(char[] digits) {
+		byte[] values = new byte[128];
+		Arrays.fill(values, (byte) -1);
+		for (int i = 0; i < digits.length; i++) {
+			values[digits[i]] = (byte) i;
+		}
+		return values;
+	}
+
+	// the 6 bits of the index-th base64 digit of the 128 bits big-endian value
+	private static final int base64Digit(long msb, long lsb, int index) {
+		if (index == 21) {
+			return (int) (lsb << 4) & 0x3F;
+		}
+		int shift = 122 - index * 6;
+		if (shift >= 64) {
+			return (int) (msb >>> (shift - 64)) & 0x3F;
+		}
+		if (shift == 62) {
+			return (int) ((msb << 2) | (lsb >>> 62)) & 0x3F;
+		}
+		return (int) (lsb >>> shift) & 0x3F;
+	}
+
+	public static final String toBase64String(UUID uuid) {
+		char[] chars = new char[BASE64_LENGTH];
+		toBase64(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 0);
+		return new String(chars);
+	}
+
+	public static final void toBase64(long mostSigBits, long leastSigBits, char[] dst, int offset) {
+		for (int i = 0; i < BASE64_LENGTH; i++) {
+			dst[offset + i] = base64Digits[base64Digit(mostSigBits, leastSigBits, i)];
+		}
+	}
+
+	public static final void toBase64(long mostSigBits, long leastSigBits, byte[] dst, int offset) {
+		for (int i = 0; i < BASE64_LENGTH; i++) {
+			dst[offset + i] = (byte) base64Digits[base64Digit(mostSigBits, leastSigBits, i)];
+		}
+	}
+
+	private static final int base64Value(int c) {
+		int v = c < 128 ? base64Values[c] : -1;
+		if (v < 0) {
+			throw new IllegalArgumentException("Invalid UUID base64 character: " + (char) c);
+		}
+		return v;
+	}
+
+	private static final UUID base64ToUUID(long hi, long lo, int last) {
+		if ((last & 0x0F) != 0) {
+			throw new IllegalArgumentException("Invalid UUID base64 string, non-zero padding bits");
+		}
+		return new UUID((hi << 2) | (lo >>> 62), (lo << 2) | (last >>> 4));
+	}
+
+	public static final UUID fromBase64(CharSequence base64) {
+		if (base64.length() != BASE64_LENGTH) {
+			throw new IllegalArgumentException("Invalid UUID base64 string: " + base64);
+		}
+		long hi = 0;
+		long lo = 0;
+		// the first 21 digits carry 126 bits, the last one 2 bits
+		for (int i = 0; i < 21; i++) {
+			hi = (hi << 6) | (lo >>> 58);
+			lo = (lo << 6) | base64Value(base64.charAt(i));
+		}
+		return base64ToUUID(hi, lo, base64Value(base64.charAt(21)));
+	}
+
+	public static final UUID fromBase64(char[] src, int offset) {
+		long hi = 0;
+		long lo = 0;
+		for (int i = 0; i < 21; i++) {
+			hi = (hi << 6) | (lo >>> 58);
+			lo = (lo << 6) | base64Value(src[offset + i]);
+		}
+		return base64ToUUID(hi, lo, base64Value(src[offset + 21]));
+	}
+
+	public static final UUID fromBase64(byte[] src, int offset) {
+		long hi = 0;
+		long lo = 0;
+		for (int i = 0; i < 21; i++) {
+			hi = (hi << 6) | (lo >>> 58);
+			lo = (lo << 6) | base64Value(src[offset + i] & 0xFF);
+		}
+		return base64ToUUID(hi, lo, base64Value(src[offset + 21] & 0xFF));
+	}
+
+	public static final String toBase62String(UUID uuid) {
+		char[] chars = new char[BASE62_LENGTH];
+		toBase62(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 0);
+		return new String(chars);
+	}
+
+	public static final void toBase62(long mostSigBits, long leastSigBits, char[] dst, int offset) {
+		// 128 bits as four 32 bits limbs, divided by 62^5 once per round
+		long l0 = mostSigBits >>> 32;
+		long l1 = mostSigBits & 0xFFFFFFFFL;
+		long l2 = leastSigBits >>> 32;
+		long l3 = leastSigBits & 0xFFFFFFFFL;
+		int i = offset + BASE62_LENGTH;
+		// four rounds of 5 digits, the remaining value has 2 digits
+		for (int round = 0; round < 4; round++) {
+			long t = ((l0 % BASE62_POW5) << 32) | l1;
+			l0 /= BASE62_POW5;
+			l1 = t / BASE62_POW5;
+			t = ((t % BASE62_POW5) << 32) | l2;
+			l2 = t / BASE62_POW5;
+			t = ((t % BASE62_POW5) << 32) | l3;
+			l3 = t / BASE62_POW5;
+			int r = (int) (t % BASE62_POW5);
+			for (int j = 0; j < 5; j++) {
+				dst[--i] = base62Digits[r % 62];
+				r /= 62;
+			}
+		}
+		int r = (int) l3;
+		dst[--i] = base62Digits[r % 62];
+		dst[--i] = base62Digits[r / 62];
+	}
+
+	public static final void toBase62(long mostSigBits, long leastSigBits, byte[] dst, int offset) {
+		long l0 = mostSigBits >>> 32;
+		long l1 = mostSigBits & 0xFFFFFFFFL;
+		long l2 = leastSigBits >>> 32;
+		long l3 = leastSigBits & 0xFFFFFFFFL;
+		int i = offset + BASE62_LENGTH;
+		// four rounds of 5 digits, the remaining value has 2 digits
+		for (int round = 0; round < 4; round++) {
+			long t = ((l0 % BASE62_POW5) << 32) | l1;
+			l0 /= BASE62_POW5;
+			l1 = t / BASE62_POW5;
+			t = ((t % BASE62_POW5) << 32) | l2;
+			l2 = t / BASE62_POW5;
+			t = ((t % BASE62_POW5) << 32) | l3;
+			l3 = t / BASE62_POW5;
+			int r = (int) (t % BASE62_POW5);
+			for (int j = 0; j < 5; j++) {
+				dst[--i] = (byte) base62Digits[r % 62];
+				r /= 62;
+			}
+		}
+		int r = (int) l3;
+		dst[--i] = (byte) base62Digits[r % 62];
+		dst[--i] = (byte) base62Digits[r / 62];
+	}
+
+	private static final int base62Value(int c) {
+		int v = c < 128 ? base62Values[c] : -1;
+		if (v < 0) {
+			throw new IllegalArgumentException("Invalid UUID base62 character: " + (char) c);
+		}
+		return v;
+	}
+
+	public static final UUID fromBase62(CharSequence base62) {
+		if (base62.length() != BASE62_LENGTH) {
+			throw new IllegalArgumentException("Invalid UUID base62 string: " + base62);
+		}
+		Base62Accumulator acc = new Base62Accumulator();
+		for (int i = 0; i < BASE62_LENGTH; i++) {
+			acc.add(base62Value(base62.charAt(i)));
+		}
+		return acc.toUUID();
+	}
+
+	public static final UUID fromBase62(char[] src, int offset) {
+		Base62Accumulator acc = new Base62Accumulator();
+		for (int i = 0; i < BASE62_LENGTH; i++) {
+			acc.add(base62Value(src[offset + i]));
+		}
+		return acc.toUUID();
+	}
+
+	public static final UUID fromBase62(byte[] src, int offset) {
+		Base62Accumulator acc = new Base62Accumulator();
+		for (int i = 0; i < BASE62_LENGTH; i++) {
+			acc.add(base62Value(src[offset + i] & 0xFF));
+		}
+		return acc.toUUID();
+	}
+
+	// does not escape, so the JIT keeps the limbs in registers
+	private static final class Base62Accumulator {
+
+		private long l0;
+		private long l1;
+		private long l2;
+		private long l3;
+
+		private void add(int digit) {
+			long t = l3 * 62 + digit;
+			l3 = t & 0xFFFFFFFFL;
+			t = l2 * 62 + (t >>> 32);
+			l2 = t & 0xFFFFFFFFL;
+			t = l1 * 62 + (t >>> 32);
+			l1 = t & 0xFFFFFFFFL;
+			t = l0 * 62 + (t >>> 32);
+			if ((t >>> 32) != 0) {
+				throw new IllegalArgumentException("Invalid UUID base62 string, value overflows 128 bits");
+			}
+			l0 = t;
+		}
+
+		private UUID toUUID() {
+			return new UUID((l0 << 32) | l1, (l2 << 32) | l3);
+		}
+
+	}
+
+	private static final class NodeHolder {
+		private static final long variantAndNode = 0x8000000000000000L | NodeIdentity.current().node();
+	}
+
 	private UUIDUtils() {
 		// only provides class methods
 	}
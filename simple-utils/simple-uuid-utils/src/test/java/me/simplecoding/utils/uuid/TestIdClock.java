@@ -0,0 +1,81 @@
+package me.simplecoding.utils.uuid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TestIdClock {
+
+	@Test
+	public void testManualClock() {
+		IdClock original = UUIDUtils.clock();
+		try {
+			long now = System.currentTimeMillis() + 50;
+			ManualIdClock clock = new ManualIdClock(now);
+			UUIDUtils.clock(clock);
+			UUID first = UUIDUtils.uuid1();
+			assertEquals(now * 10000 + 0x01B21DD213814000L, first.timestamp());
+			UUID second = UUIDUtils.uuid1();
+			assertEquals(first.timestamp() + 1, second.timestamp());
+			assertEquals(first.clockSequence(), second.clockSequence());
+			// clock regression keeps counting on the last millisecond
+			clock.advance(-1000);
+			UUID third = UUIDUtils.uuid1();
+			assertEquals(first.timestamp() + 2, third.timestamp());
+			clock.set(now + 1);
+			assertEquals((now + 1) * 10000 + 0x01B21DD213814000L, UUIDUtils.uuid1().timestamp());
+			clock.advance(1);
+			assertEquals(now + 2, UUIDUtils.uuid7().getMostSignificantBits() >>> 16);
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			UUIDUtils.clock(original);
+		}
+	}
+
+	@Test
+	public void testSnowflakeManualClock() {
+		try {
+			ManualIdClock clock = new ManualIdClock(SnowflakeIdGenerator.DEFAULT_EPOCH + 1000);
+			SnowflakeIdGenerator generator = SnowflakeIdGenerator.Builder.newInstance().clock(clock).sequenceBits(2)
+					.nodeId(1).build();
+			long id = generator.nextId();
+			assertEquals(SnowflakeIdGenerator.DEFAULT_EPOCH + 1000, generator.timestamp(id));
+			assertEquals(0, generator.sequence(id));
+			for (int i = 1; i < 4; i++) {
+				assertEquals(i, generator.sequence(generator.nextId()));
+			}
+			// exhausted, borrows the next millisecond
+			id = generator.nextId();
+			assertEquals(SnowflakeIdGenerator.DEFAULT_EPOCH + 1001, generator.timestamp(id));
+			assertEquals(0, generator.sequence(id));
+			clock.advance(-500);
+			long next = generator.nextId();
+			assertTrue(next > id);
+			assertEquals(SnowflakeIdGenerator.DEFAULT_EPOCH + 1001, generator.timestamp(next));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testCoarseClock() {
+		try (CoarseIdClock clock = new CoarseIdClock(1, TimeUnit.MILLISECONDS)) {
+			long start = clock.millis();
+			assertTrue(Math.abs(System.currentTimeMillis() - start) < 1000);
+			long deadline = System.currentTimeMillis() + 5000;
+			while (clock.millis() == start && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			assertTrue(clock.millis() > start);
+			clock.close();
+			assertFalse(clock.isRunning());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
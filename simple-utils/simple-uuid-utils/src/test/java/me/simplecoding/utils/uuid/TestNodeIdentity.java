@@ -0,0 +1,42 @@
+package me.simplecoding.utils.uuid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class TestNodeIdentity {
+
+	@Test
+	public void testParseNode() {
+		try {
+			assertEquals(0x0123456789abL, NodeIdentity.parseNode("01:23:45:67:89:ab"));
+			assertEquals(0x0123456789abL, NodeIdentity.parseNode("01-23-45-67-89-AB"));
+			assertEquals(0x0123456789abL, NodeIdentity.parseNode("0123456789ab"));
+			assertEquals(0x1fL, NodeIdentity.parseNode("0x1F"));
+			assertEquals("01:23:45:67:89:ab", NodeIdentity.formatNode(0x0123456789abL));
+			assertThrows(IllegalArgumentException.class, () -> NodeIdentity.parseNode("0123456789abc"));
+			assertThrows(IllegalArgumentException.class, () -> NodeIdentity.parseNode("xyz"));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testCurrent() {
+		try {
+			NodeIdentity identity = NodeIdentity.current();
+			assertSame(identity, NodeIdentity.current());
+			assertEquals(identity.node(), identity.node() & NodeIdentity.NODE_MASK);
+			if (identity.source() == NodeIdentity.Source.RANDOM) {
+				assertNotEquals(0, identity.node() & NodeIdentity.MULTICAST_BIT);
+			}
+			UUID uuid = UUIDUtils.uuid1();
+			assertEquals(identity.node(), uuid.node());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
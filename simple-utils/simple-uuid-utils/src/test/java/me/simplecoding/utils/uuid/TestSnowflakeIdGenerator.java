@@ -0,0 +1,113 @@
+package me.simplecoding.utils.uuid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+public class TestSnowflakeIdGenerator {
+
+	@Test
+	public void testNextId() {
+		try {
+			SnowflakeIdGenerator generator = SnowflakeIdGenerator.Builder.newInstance().nodeId(5).build();
+			long before = System.currentTimeMillis();
+			long prev = generator.nextId();
+			assertTrue(prev > 0);
+			assertEquals(5, generator.nodeId(prev));
+			assertTrue(generator.timestamp(prev) >= before);
+			assertTrue(generator.timestamp(prev) <= System.currentTimeMillis());
+			for (int i = 0; i < 100000; i++) {
+				long id = generator.nextId();
+				assertTrue(id > prev);
+				assertEquals(5, generator.nodeId(id));
+				prev = id;
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testSequenceExhausted() {
+		try {
+			SnowflakeIdGenerator generator = SnowflakeIdGenerator.Builder.newInstance().nodeBits(4).sequenceBits(2)
+					.build();
+			assertTrue(generator.nodeId() < 16);
+			long prev = generator.nextId();
+			for (int i = 0; i < 1000; i++) {
+				long id = generator.nextId();
+				assertTrue(id > prev);
+				assertTrue(generator.sequence(id) < 4);
+				prev = id;
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testConcurrent() {
+		try {
+			SnowflakeIdGenerator generator = SnowflakeIdGenerator.Builder.newInstance().build();
+			int threads = 4;
+			int perThread = 50000;
+			long[] ids = new long[threads * perThread];
+			CountDownLatch latch = new CountDownLatch(threads);
+			for (int t = 0; t < threads; t++) {
+				int offset = t * perThread;
+				new Thread(() -> {
+					for (int i = 0; i < perThread; i++) {
+						ids[offset + i] = generator.nextId();
+					}
+					latch.countDown();
+				}).start();
+			}
+			latch.await();
+			Arrays.sort(ids);
+			for (int i = 1; i < ids.length; i++) {
+				assertNotEquals(ids[i - 1], ids[i]);
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testTimestampExhausted() {
+		try {
+			ManualIdClock clock = new ManualIdClock((1L << 20) - 1);
+			SnowflakeIdGenerator generator = SnowflakeIdGenerator.Builder.newInstance().timestampBits(20).nodeBits(0)
+					.sequenceBits(40).epoch(0).clock(clock).build();
+			long id = generator.nextId();
+			assertEquals((1L << 20) - 1, generator.timestamp(id));
+			// shifted by the 40 bits sequence, this timestamp would wrap to 0
+			clock.set(1L << 24);
+			assertThrows(IllegalStateException.class, generator::nextId);
+			assertThrows(IllegalStateException.class, generator::nextId);
+
+			// borrowing past the last millisecond fails as well
+			ManualIdClock last = new ManualIdClock(3);
+			SnowflakeIdGenerator small = SnowflakeIdGenerator.Builder.newInstance().timestampBits(2).nodeBits(0)
+					.sequenceBits(1).epoch(0).clock(last).build();
+			small.nextId();
+			small.nextId();
+			assertThrows(IllegalStateException.class, small::nextId);
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testInvalidConfig() {
+		assertThrows(IllegalArgumentException.class,
+				() -> SnowflakeIdGenerator.Builder.newInstance().timestampBits(42).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> SnowflakeIdGenerator.Builder.newInstance().nodeBits(3).nodeId(8).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> SnowflakeIdGenerator.Builder.newInstance().epoch(System.currentTimeMillis() + 60000).build());
+	}
+
+}
@@ -0,0 +1,102 @@
+package me.simplecoding.utils.uuid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class TestUUIDHashMap {
+
+	@Test
+	public void testMap() {
+		try {
+			Random random = new Random(1);
+			UUIDHashMap<Integer> map = new UUIDHashMap<>(4);
+			Map<UUID, Integer> expected = new HashMap<>();
+			List<UUID> keys = new ArrayList<>();
+			for (int i = 0; i < 20000; i++) {
+				UUID key = new UUID(random.nextInt(64) == 0 ? 0 : random.nextLong(), random.nextLong());
+				keys.add(key);
+				assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			assertNull(map.put(new UUID(0, 0), -1));
+			expected.put(new UUID(0, 0), -1);
+			assertEquals(expected.size(), map.size());
+			for (int i = 0; i < keys.size(); i += 2) {
+				UUID key = keys.get(i);
+				assertEquals(expected.remove(key), map.remove(key.getMostSignificantBits(),
+						key.getLeastSignificantBits()));
+			}
+			assertEquals(expected.size(), map.size());
+			for (UUID key : keys) {
+				assertEquals(expected.get(key), map.get(key.getMostSignificantBits(), key.getLeastSignificantBits()));
+				assertEquals(expected.containsKey(key), map.containsKey(key));
+			}
+			assertEquals(Integer.valueOf(-1), map.get(0, 0));
+			Map<UUID, Integer> visited = new HashMap<>();
+			map.forEach((msb, lsb, v) -> visited.put(new UUID(msb, lsb), v));
+			assertEquals(expected, visited);
+			map.clear();
+			assertTrue(map.isEmpty());
+			assertNull(map.get(keys.get(1)));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testSet() {
+		try {
+			Random random = new Random(2);
+			UUIDHashSet set = new UUIDHashSet();
+			DirectUUIDHashSet directSet = new DirectUUIDHashSet();
+			Set<UUID> expected = new HashSet<>();
+			for (int i = 0; i < 20000; i++) {
+				// small key space to exercise collisions and removals
+				UUID key = new UUID(random.nextInt(4), random.nextInt(4096));
+				if (random.nextBoolean()) {
+					boolean added = expected.add(key);
+					assertEquals(added, set.add(key));
+					assertEquals(added, directSet.add(key));
+				} else {
+					boolean removed = expected.remove(key);
+					assertEquals(removed, set.remove(key));
+					assertEquals(removed, directSet.remove(key));
+				}
+			}
+			assertEquals(expected.size(), set.size());
+			assertEquals(expected.size(), directSet.size());
+			for (int i = 0; i < 4; i++) {
+				for (int j = 0; j < 4096; j++) {
+					assertEquals(expected.contains(new UUID(i, j)), set.contains(i, j));
+					assertEquals(expected.contains(new UUID(i, j)), directSet.contains(i, j));
+				}
+			}
+			Set<UUID> visited = new HashSet<>();
+			directSet.forEach((msb, lsb) -> visited.add(new UUID(msb, lsb)));
+			assertEquals(expected, visited);
+			directSet.clear();
+			assertTrue(directSet.isEmpty());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testMaxCapacity() {
+		assertEquals(AbstractUUIDHashTable.MAX_CAPACITY, AbstractUUIDHashTable.grownCapacity(1 << 29));
+		assertThrows(IllegalStateException.class,
+				() -> AbstractUUIDHashTable.grownCapacity(AbstractUUIDHashTable.MAX_CAPACITY));
+		assertEquals(1 << 26, DirectUUIDHashSet.grownCapacity(1 << 25));
+		assertThrows(IllegalStateException.class, () -> DirectUUIDHashSet.grownCapacity(1 << 26));
+	}
+
+}
@@ -0,0 +1,67 @@
+package me.simplecoding.utils.uuid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+public class TestUUIDRingBuffer {
+
+	@Test
+	public void testGet() {
+		try (UUIDRingBuffer buffer = UUIDRingBuffer.Builder.newInstance().capacity(100).build()) {
+			assertEquals(128, buffer.capacity());
+			long deadline = System.currentTimeMillis() + 5000;
+			while (buffer.fillLevel() < buffer.capacity() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			assertEquals(buffer.capacity(), buffer.fillLevel());
+			UUID uuid = buffer.get();
+			assertEquals(7, uuid.version());
+			assertEquals(1, buffer.hitCount());
+
+			buffer.close();
+			Thread.sleep(10);
+			int remaining = buffer.fillLevel();
+			for (int i = 0; i < remaining; i++) {
+				buffer.get();
+			}
+			assertEquals(0, buffer.fillLevel());
+			assertEquals(0, buffer.missCount());
+			// drained, falls back to inline generation
+			assertEquals(7, buffer.get().version());
+			assertEquals(1, buffer.missCount());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testConcurrent() {
+		try (UUIDRingBuffer buffer = UUIDRingBuffer.Builder.newInstance().generator(UUIDUtils::uuid1).capacity(256)
+				.build()) {
+			int threads = 4;
+			int perThread = 20000;
+			Set<UUID> uuids = ConcurrentHashMap.newKeySet();
+			CountDownLatch latch = new CountDownLatch(threads);
+			for (int t = 0; t < threads; t++) {
+				new Thread(() -> {
+					for (int i = 0; i < perThread; i++) {
+						uuids.add(buffer.get());
+					}
+					latch.countDown();
+				}).start();
+			}
+			latch.await();
+			assertEquals(threads * perThread, uuids.size());
+			assertEquals(threads * perThread, buffer.hitCount() + buffer.missCount());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+}
@@ -2,8 +2,21 @@ package me.simplecoding.utils.uuid;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
 import java.util.UUID;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.junit.jupiter.api.Test;
 
 public class TestUUIDUtils {
@@ -31,4 +44,279 @@ public class TestUUIDUtils {
 		}
 	}
 
+	@Test
+	public void testUuid6() {
+		try {
+			UUID prev = UUIDUtils.uuid6();
+			assertEquals(6, prev.version());
+			assertEquals(2, prev.variant());
+			for (int i = 0; i < 10000; i++) {
+				UUID uuid = UUIDUtils.uuid6();
+				assertEquals(6, uuid.version());
+				assertTrue(Long.compareUnsigned(prev.getMostSignificantBits(), uuid.getMostSignificantBits()) <= 0);
+				assertNotEquals(prev, uuid);
+				prev = uuid;
+			}
+			UUID uuid = UUIDUtils.fromHex(UUIDUtils.uuid6Hex());
+			assertEquals(6, uuid.version());
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testUuid7() {
+		try {
+			long before = System.currentTimeMillis();
+			UUID prev = UUIDUtils.uuid7();
+			assertEquals(7, prev.version());
+			assertEquals(2, prev.variant());
+			assertTrue((prev.getMostSignificantBits() >>> 16) >= before);
+			for (int i = 0; i < 100000; i++) {
+				UUID uuid = UUIDUtils.uuid7();
+				assertEquals(7, uuid.version());
+				assertEquals(2, uuid.variant());
+				assertTrue(Long.compareUnsigned(prev.getMostSignificantBits(), uuid.getMostSignificantBits()) < 0);
+				prev = uuid;
+			}
+			UUID uuid = UUIDUtils.fromHex(UUIDUtils.uuid7Hex());
+			assertEquals(7, uuid.version());
+			// the counter seeded in a new millisecond must not repeat bits of rand_b
+			int overlaps = 0;
+			for (int i = 0; i < 50; i++) {
+				Thread.sleep(2);
+				uuid = UUIDUtils.uuid7();
+				long counter = uuid.getMostSignificantBits() & 0x0FFF;
+				if (((uuid.getLeastSignificantBits() >>> 53) & 0x01FF) == (counter & 0x01FF)) {
+					overlaps++;
+				}
+			}
+			assertTrue(overlaps < 5, "rand_b repeats the counter seed " + overlaps + " times");
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testBase64() {
+		try {
+			Random random = new Random(3);
+			char[] chars = new char[UUIDUtils.BASE64_LENGTH + 2];
+			byte[] bytes = new byte[UUIDUtils.BASE64_LENGTH + 2];
+			for (int i = 0; i < 1000; i++) {
+				UUID uuid = i == 0 ? new UUID(-1, -1)
+						: i == 1 ? new UUID(0, 0) : new UUID(random.nextLong(), random.nextLong());
+				byte[] raw = ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits())
+						.putLong(uuid.getLeastSignificantBits()).array();
+				String expected = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+				String base64 = UUIDUtils.toBase64String(uuid);
+				assertEquals(expected, base64);
+				assertEquals(uuid, UUIDUtils.fromBase64(base64));
+				UUIDUtils.toBase64(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 2);
+				assertEquals(uuid, UUIDUtils.fromBase64(chars, 2));
+				UUIDUtils.toBase64(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), bytes, 1);
+				assertEquals(expected, new String(bytes, 1, UUIDUtils.BASE64_LENGTH, StandardCharsets.US_ASCII));
+				assertEquals(uuid, UUIDUtils.fromBase64(bytes, 1));
+			}
+			assertThrows(IllegalArgumentException.class, () -> UUIDUtils.fromBase64("AAAAAAAAAAAAAAAAAAAAAB"));
+			assertThrows(IllegalArgumentException.class, () -> UUIDUtils.fromBase64("AAAAAAAAAAAAAAAAAAAA+A"));
+			assertThrows(IllegalArgumentException.class, () -> UUIDUtils.fromBase64("AAAA"));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testBase62() {
+		try {
+			Random random = new Random(4);
+			char[] chars = new char[UUIDUtils.BASE62_LENGTH];
+			byte[] bytes = new byte[UUIDUtils.BASE62_LENGTH];
+			assertEquals("0000000000000000000000", UUIDUtils.toBase62String(new UUID(0, 0)));
+			assertEquals("7n42DGM5Tflk9n8mt7Fhc7", UUIDUtils.toBase62String(new UUID(-1, -1)));
+			for (int i = 0; i < 1000; i++) {
+				UUID uuid = new UUID(random.nextLong(), random.nextLong());
+				String base62 = UUIDUtils.toBase62String(uuid);
+				assertEquals(UUIDUtils.BASE62_LENGTH, base62.length());
+				assertEquals(uuid, UUIDUtils.fromBase62(base62));
+				UUIDUtils.toBase62(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 0);
+				assertEquals(base62, new String(chars));
+				assertEquals(uuid, UUIDUtils.fromBase62(chars, 0));
+				UUIDUtils.toBase62(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), bytes, 0);
+				assertEquals(uuid, UUIDUtils.fromBase62(bytes, 0));
+			}
+			// fixed width base62 keeps the order of time based UUIDs
+			String prev = UUIDUtils.toBase62String(UUIDUtils.uuid7());
+			for (int i = 0; i < 1000; i++) {
+				String next = UUIDUtils.toBase62String(UUIDUtils.uuid7());
+				assertTrue(prev.compareTo(next) < 0);
+				prev = next;
+			}
+			assertThrows(IllegalArgumentException.class, () -> UUIDUtils.fromBase62("zzzzzzzzzzzzzzzzzzzzzz"));
+			assertThrows(IllegalArgumentException.class, () -> UUIDUtils.fromBase62("000000000000000000000-"));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testMetrics() {
+		IdClock original = UUIDUtils.clock();
+		try {
+			ManualIdClock clock = new ManualIdClock(System.currentTimeMillis() + 50);
+			UUIDUtils.clock(clock);
+			UUIDGeneratorMetrics before = UUIDUtils.metrics();
+			// 10000 ticks per millisecond, then the clock sequence moves
+			for (int i = 0; i < 10005; i++) {
+				UUIDUtils.uuid1();
+			}
+			clock.advance(-10);
+			UUIDUtils.uuid6();
+			UUIDGeneratorMetrics delta = UUIDUtils.metrics().minus(before);
+			assertEquals(10006, delta.generated());
+			assertTrue(delta.sequenceIncrements() >= 5);
+			assertTrue(delta.clockRegressions() >= 1);
+
+			ObjectName name = UUIDUtils.registerMBean();
+			assertEquals(name, UUIDUtils.registerMBean());
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			long generated = (Long) server.getAttribute(name, "Generated");
+			assertTrue(generated >= delta.generated());
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			UUIDUtils.clock(original);
+		}
+	}
+
+	@Test
+	public void testBinary() {
+		try {
+			UUID uuid = UUIDUtils.uuid1();
+			byte[] expected = ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits())
+					.putLong(uuid.getLeastSignificantBits()).array();
+			assertArrayEquals(expected, UUIDUtils.toBytes(uuid));
+			assertEquals(uuid, UUIDUtils.fromBytes(expected, 0));
+			byte[] bytes = new byte[20];
+			UUIDUtils.toBytes(uuid, bytes, 3);
+			assertEquals(uuid, UUIDUtils.fromBytes(bytes, 3));
+			assertThrows(IndexOutOfBoundsException.class, () -> UUIDUtils.fromBytes(bytes, 5));
+
+			for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(40),
+					ByteBuffer.allocateDirect(40).order(ByteOrder.LITTLE_ENDIAN) }) {
+				buffer.position(2);
+				UUIDUtils.toBytes(uuid, buffer);
+				assertEquals(18, buffer.position());
+				UUIDUtils.toBytes(uuid, buffer, 20);
+				buffer.position(2);
+				assertEquals(uuid, UUIDUtils.fromBytes(buffer));
+				assertEquals(uuid, UUIDUtils.fromBytes(buffer, 20));
+				byte[] raw = new byte[16];
+				buffer.position(2);
+				buffer.get(raw);
+				assertArrayEquals(expected, raw);
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			UUIDUtils.write(uuid, new DataOutputStream(out));
+			assertArrayEquals(expected, out.toByteArray());
+			assertEquals(uuid, UUIDUtils.read(new DataInputStream(new ByteArrayInputStream(out.toByteArray()))));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testBinaryBulk() {
+		try {
+			int count = 100;
+			UUID[] uuids = new UUID[count];
+			long[] msbs = new long[count];
+			long[] lsbs = new long[count];
+			for (int i = 0; i < count; i++) {
+				uuids[i] = UUIDUtils.uuid7();
+				msbs[i] = uuids[i].getMostSignificantBits();
+				lsbs[i] = uuids[i].getLeastSignificantBits();
+			}
+			byte[] bytes = new byte[count * 16 + 1];
+			UUIDUtils.toBytes(uuids, 0, bytes, 1, count);
+			byte[] fromLongs = new byte[count * 16 + 1];
+			UUIDUtils.toBytes(msbs, lsbs, 0, fromLongs, 1, count);
+			assertArrayEquals(bytes, fromLongs);
+			UUID[] decoded = new UUID[count];
+			UUIDUtils.fromBytes(bytes, 1, decoded, 0, count);
+			assertArrayEquals(uuids, decoded);
+			long[] decodedMsbs = new long[count];
+			long[] decodedLsbs = new long[count];
+			UUIDUtils.fromBytes(bytes, 1, decodedMsbs, decodedLsbs, 0, count);
+			assertArrayEquals(msbs, decodedMsbs);
+			assertArrayEquals(lsbs, decodedLsbs);
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(count * 32);
+			UUIDUtils.toBytes(uuids, 0, count, buffer);
+			UUIDUtils.toBytes(msbs, lsbs, 0, count, buffer);
+			assertFalse(buffer.hasRemaining());
+			buffer.flip();
+			UUIDUtils.fromBytes(buffer, decoded, 0, count);
+			assertArrayEquals(uuids, decoded);
+			UUIDUtils.fromBytes(buffer, decodedMsbs, decodedLsbs, 0, count);
+			assertArrayEquals(msbs, decodedMsbs);
+			assertThrows(IndexOutOfBoundsException.class, () -> UUIDUtils.toBytes(uuids, 0, bytes, 2, count));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@Test
+	public void testOrdered() {
+		try {
+			UUID uuid = UUID.fromString("6ccd780c-baba-1026-9564-5b8c656024db");
+			UUID ordered = UUIDUtils.toOrdered(uuid);
+			// same as MySQL UUID_TO_BIN(uuid, 1)
+			assertEquals(UUID.fromString("1026baba-6ccd-780c-9564-5b8c656024db"), ordered);
+			assertEquals(uuid, UUIDUtils.fromOrdered(ordered));
+			assertEquals(uuid.timestamp(), UUIDUtils.timestamp(uuid));
+			assertEquals(uuid.clockSequence(), UUIDUtils.clockSequence(uuid));
+
+			long start = System.currentTimeMillis();
+			byte[][] keys = new byte[1000][];
+			for (int i = 0; i < keys.length; i++) {
+				uuid = UUIDUtils.uuid1();
+				keys[i] = UUIDUtils.toOrderedBytes(uuid);
+				assertEquals(uuid, UUIDUtils.fromOrderedBytes(keys[i], 0));
+				assertEquals(uuid.timestamp(), UUIDUtils.orderedTimestamp(keys[i], 0));
+				assertEquals(UUIDUtils.unixMillis(uuid), UUIDUtils.orderedUnixMillis(keys[i], 0));
+				assertTrue(UUIDUtils.unixMillis(uuid) >= start - 1000);
+			}
+			byte[] lower = UUIDUtils.toBytes(UUIDUtils.orderedLowerBound(UUIDUtils.orderedUnixMillis(keys[0], 0)));
+			byte[] upper = UUIDUtils
+					.toBytes(UUIDUtils.orderedLowerBound(UUIDUtils.orderedUnixMillis(keys[keys.length - 1], 0) + 1));
+			for (int i = 0; i < keys.length; i++) {
+				assertTrue(compareUnsigned(lower, keys[i]) <= 0);
+				assertTrue(compareUnsigned(keys[i], upper) < 0);
+				if (i > 0) {
+					assertTrue(compareUnsigned(keys[i - 1], keys[i]) <= 0);
+				}
+			}
+
+			UUID v6 = UUIDUtils.uuid6();
+			assertEquals(UUIDUtils.clockSequence(v6), (int) (v6.getLeastSignificantBits() >>> 48) & 0x3FFF);
+			assertTrue(Math.abs(UUIDUtils.unixMillis(v6) - System.currentTimeMillis()) < 1000);
+			assertTrue(Math.abs(UUIDUtils.unixMillis(UUIDUtils.uuid7()) - System.currentTimeMillis()) < 1000);
+			assertThrows(UnsupportedOperationException.class, () -> UUIDUtils.timestamp(UUID.randomUUID()));
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	private static int compareUnsigned(byte[] a, byte[] b) {
+		for (int i = 0; i < a.length; i++) {
+			int c = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
 }